@@ -0,0 +1,83 @@
+package io.github.netanelshriki.minilombok.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@code QuoteView} and {@code QuoteColumns} companions generated for {@link Quote}
+ * with hand-written equivalents, by summing the notional of every record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeneratedCodeBenchmark {
+
+    @Param({"1000", "100000"})
+    public int records;
+
+    private final QuoteView view = new QuoteView();
+    private ByteBuffer buffer;
+    private QuoteColumns columns;
+    private HandWrittenQuote[] objects;
+
+    @Setup
+    public void setUp() {
+        buffer = ByteBuffer.allocateDirect(records * QuoteView.RECORD_SIZE);
+        columns = new QuoteColumns(records);
+        objects = new HandWrittenQuote[records];
+        for (int i = 0; i < records; i++) {
+            long time = 1_000_000L + i;
+            double price = 100 + (i % 50) * 0.25;
+            int size = 1 + i % 100;
+            int base = i * QuoteView.RECORD_SIZE;
+            buffer.putLong(base + QuoteView.TIME_OFFSET, time);
+            buffer.putDouble(base + QuoteView.PRICE_OFFSET, price);
+            buffer.putInt(base + QuoteView.SIZE_OFFSET, size);
+            columns.add(time, price, size);
+            objects[i] = new HandWrittenQuote(time, price, size);
+        }
+    }
+
+    @Benchmark
+    public double generatedView() {
+        double notional = 0;
+        for (int i = 0; i < records; i++) {
+            view.wrap(buffer, i);
+            notional += view.getPrice() * view.getSize();
+        }
+        return notional;
+    }
+
+    @Benchmark
+    public double handWrittenBuffer() {
+        double notional = 0;
+        for (int i = 0; i < records; i++) {
+            // Same layout as Quote: time at 0, price at 8, size at 16, 20 bytes per record
+            int base = i * 20;
+            notional += buffer.getDouble(base + 8) * buffer.getInt(base + 16);
+        }
+        return notional;
+    }
+
+    @Benchmark
+    public double generatedColumns() {
+        double[] prices = columns.priceColumn();
+        int[] sizes = columns.sizeColumn();
+        double notional = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            notional += prices[i] * sizes[i];
+        }
+        return notional;
+    }
+
+    @Benchmark
+    public double handWrittenObjects() {
+        double notional = 0;
+        for (HandWrittenQuote quote : objects) {
+            notional += quote.getPrice() * quote.getSize();
+        }
+        return notional;
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.netanelshriki.minilombok.benchmark;
+
+/**
+ * Hand-written object per record with the fields of {@link Quote}, used as a baseline.
+ */
+public class HandWrittenQuote {
+    private final long time;
+    private final double price;
+    private final int size;
+
+    public HandWrittenQuote(long time, double price, int size) {
+        this.time = time;
+        this.price = price;
+        this.size = size;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
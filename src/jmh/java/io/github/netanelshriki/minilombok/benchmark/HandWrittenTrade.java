@@ -0,0 +1,61 @@
+package io.github.netanelshriki.minilombok.benchmark;
+
+import java.util.Objects;
+
+/**
+ * Hand-written trade record with the fields of {@link Trade}, used as a baseline. Its
+ * {@code toString} is what MiniLombok generated before presizing and {@code appendTo}, and its
+ * {@code equals} and {@code hashCode} are the usual {@link Objects} based ones.
+ */
+public class HandWrittenTrade {
+    private final long id;
+    private final String symbol;
+    private final double price;
+    private final int quantity;
+    private final boolean buy;
+
+    public HandWrittenTrade(long id, String symbol, double price, int quantity, boolean buy) {
+        this.id = id;
+        this.symbol = symbol;
+        this.price = price;
+        this.quantity = quantity;
+        this.buy = buy;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Trade{");
+        sb.append("id=").append(String.valueOf(this.id));
+        sb.append(", ");
+        sb.append("symbol=").append(String.valueOf(this.symbol));
+        sb.append(", ");
+        sb.append("price=").append(String.valueOf(this.price));
+        sb.append(", ");
+        sb.append("quantity=").append(String.valueOf(this.quantity));
+        sb.append(", ");
+        sb.append("buy=").append(String.valueOf(this.buy));
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HandWrittenTrade other = (HandWrittenTrade) o;
+        return id == other.id
+                && Objects.equals(symbol, other.symbol)
+                && Objects.equals(price, other.price)
+                && quantity == other.quantity
+                && buy == other.buy;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, symbol, price, quantity, buy);
+    }
+}
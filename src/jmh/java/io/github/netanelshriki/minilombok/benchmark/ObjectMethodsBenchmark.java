@@ -0,0 +1,103 @@
+package io.github.netanelshriki.minilombok.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@code toString}, {@code appendTo}, {@code equals} and {@code hashCode} generated
+ * for {@link Trade} with the hand-written ones of {@link HandWrittenTrade}. Run with the GC
+ * profiler to compare allocations per call as well as time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ObjectMethodsBenchmark {
+
+    private static final int KEYS = 1024;
+
+    private Trade generated;
+    private Trade generatedCopy;
+    private HandWrittenTrade handWritten;
+    private HandWrittenTrade handWrittenCopy;
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    private final Map<Trade, Integer> generatedMap = new HashMap<>();
+    private final Map<HandWrittenTrade, Integer> handWrittenMap = new HashMap<>();
+    private Trade[] generatedProbes;
+    private HandWrittenTrade[] handWrittenProbes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        generated = Trade.create(1_000_042L, "ACME", 101.25, 300, true);
+        // Equal but not identical, so equals compares every field
+        generatedCopy = Trade.create(1_000_042L, new String("ACME"), 101.25, 300, true);
+        handWritten = new HandWrittenTrade(1_000_042L, "ACME", 101.25, 300, true);
+        handWrittenCopy = new HandWrittenTrade(1_000_042L, new String("ACME"), 101.25, 300, true);
+
+        // Lookups use equal copies of the keys, since HashMap skips equals for the same instance
+        generatedProbes = new Trade[KEYS];
+        handWrittenProbes = new HandWrittenTrade[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            String symbol = "SYM" + (i % 64);
+            double price = 100 + (i % 50) * 0.25;
+            boolean buy = (i & 1) == 0;
+            generatedMap.put(Trade.create(i, symbol, price, i % 100, buy), i);
+            handWrittenMap.put(new HandWrittenTrade(i, symbol, price, i % 100, buy), i);
+            generatedProbes[i] = Trade.create(i, new String(symbol), price, i % 100, buy);
+            handWrittenProbes[i] = new HandWrittenTrade(i, new String(symbol), price, i % 100, buy);
+        }
+    }
+
+    @Benchmark
+    public String generatedToString() {
+        return generated.toString();
+    }
+
+    @Benchmark
+    public String handWrittenToString() {
+        return handWritten.toString();
+    }
+
+    @Benchmark
+    public int generatedAppendTo() {
+        // Logging into one reused buffer, which creates no String at all
+        buffer.setLength(0);
+        return generated.appendTo(buffer).length();
+    }
+
+    @Benchmark
+    public boolean generatedEquals() {
+        return generated.equals(generatedCopy);
+    }
+
+    @Benchmark
+    public boolean handWrittenEquals() {
+        return handWritten.equals(handWrittenCopy);
+    }
+
+    @Benchmark
+    public int generatedHashCode() {
+        return generated.hashCode();
+    }
+
+    @Benchmark
+    public int handWrittenHashCode() {
+        return handWritten.hashCode();
+    }
+
+    @Benchmark
+    public Integer generatedMapLookup() {
+        next = (next + 1) & (KEYS - 1);
+        return generatedMap.get(generatedProbes[next]);
+    }
+
+    @Benchmark
+    public Integer handWrittenMapLookup() {
+        next = (next + 1) & (KEYS - 1);
+        return handWrittenMap.get(handWrittenProbes[next]);
+    }
+}
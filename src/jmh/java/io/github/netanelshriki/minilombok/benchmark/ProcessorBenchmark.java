@@ -0,0 +1,83 @@
+package io.github.netanelshriki.minilombok.benchmark;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.Compiler;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.netanelshriki.minilombok.processor.MiniLombokProcessor;
+import org.openjdk.jmh.annotations.*;
+
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures processor throughput on synthetic sources with N classes of M fields each.
+ *
+ * <p>The synthetic classes are {@code @Columnar}, whose {@code XColumns} companion is a new type.
+ * Annotations that regenerate the annotated class itself, such as {@code @Getter}, make javac
+ * reject the compilation with "Attempt to recreate a file for type", since the class is one of
+ * its own inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProcessorBenchmark {
+
+    @Param({"10", "100"})
+    public int classes;
+
+    @Param({"5", "20"})
+    public int fields;
+
+    private List<JavaFileObject> sources;
+
+    @Setup
+    public void setUp() {
+        sources = new ArrayList<>(classes);
+        for (int i = 0; i < classes; i++) {
+            sources.add(syntheticModel("Model" + i, fields));
+        }
+        // A failing compilation would be much cheaper than processing and skew every result
+        Compilation compilation = process();
+        if (compilation.status() != Compilation.Status.SUCCESS) {
+            throw new IllegalStateException("Synthetic sources did not compile: " + compilation.diagnostics());
+        }
+    }
+
+    @Benchmark
+    public Compilation process() {
+        // Run annotation processing only, so the benchmark does not measure bytecode generation
+        return Compiler.javac()
+                .withProcessors(new MiniLombokProcessor())
+                .withOptions("-proc:only")
+                .compile(sources);
+    }
+
+    private static JavaFileObject syntheticModel(String className, int fieldCount) {
+        StringBuilder source = new StringBuilder();
+        source.append("package bench;\n\n")
+                .append("import io.github.netanelshriki.minilombok.annotations.*;\n\n")
+                .append("@Columnar\n")
+                .append("public class ").append(className).append(" {\n");
+        for (int i = 0; i < fieldCount; i++) {
+            // Mix of primitive and reference fields, like a typical DTO
+            switch (i % 4) {
+                case 0:
+                    source.append("    private String text").append(i).append(";\n");
+                    break;
+                case 1:
+                    source.append("    private int count").append(i).append(";\n");
+                    break;
+                case 2:
+                    source.append("    private long id").append(i).append(";\n");
+                    break;
+                default:
+                    source.append("    private boolean flag").append(i).append(";\n");
+                    break;
+            }
+        }
+        source.append("}\n");
+        return JavaFileObjects.forSourceString("bench." + className, source.toString());
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.netanelshriki.minilombok.benchmark;
+
+import io.github.netanelshriki.minilombok.annotations.Columnar;
+import io.github.netanelshriki.minilombok.annotations.FlyweightView;
+
+/**
+ * Market data record whose {@code QuoteView} and {@code QuoteColumns} companions are generated
+ * for {@link GeneratedCodeBenchmark}.
+ */
+@FlyweightView
+@Columnar
+public class Quote {
+    private long time;
+    private double price;
+    private int size;
+}
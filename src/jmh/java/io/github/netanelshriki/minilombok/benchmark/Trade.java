@@ -0,0 +1,112 @@
+package io.github.netanelshriki.minilombok.benchmark;
+
+/**
+ * Copy of the source MiniLombok generates for a trade record declared as
+ * <pre>
+ * &#64;AllArgsConstructor
+ * &#64;ToString
+ * &#64;EqualsAndHashCode
+ * public class Trade {
+ *     private long id;
+ *     private String symbol;
+ *     private double price;
+ *     private int quantity;
+ *     private boolean buy;
+ * }
+ * </pre>
+ * with the annotations removed, for {@link ObjectMethodsBenchmark}. Left annotated, the class
+ * would be one of the inputs of its own regeneration, which javac rejects, so the copy has to be
+ * refreshed by hand when the generated {@code toString}, {@code equals} or {@code hashCode}
+ * changes.
+ */
+public class Trade {
+    private long id;
+    private java.lang.String symbol;
+    private double price;
+    private int quantity;
+    private boolean buy;
+
+    /**
+     * Creates a new instance of Trade with all fields initialized.
+     */
+    public static Trade create(
+            long id,
+            java.lang.String symbol,
+            double price,
+            int quantity,
+            boolean buy) {
+        Trade instance = new Trade();
+        instance.id = id;
+        instance.symbol = symbol;
+        instance.price = price;
+        instance.quantity = quantity;
+        instance.buy = buy;
+        return instance;
+    }
+
+    /**
+     * Appends a string representation of this Trade instance to the given builder.
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append("Trade{");
+        sb.append("id=").append(this.id);
+        sb.append(", symbol=").append(this.symbol);
+        sb.append(", price=").append(this.price);
+        sb.append(", quantity=").append(this.quantity);
+        sb.append(", buy=").append(this.buy);
+        sb.append('}');
+        return sb;
+    }
+
+    /**
+     * Returns a string representation of this Trade instance.
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(120)).toString();
+    }
+
+    /**
+     * Compares this Trade with another object field by field.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof Trade)) {
+            return false;
+        }
+        Trade other = (Trade) o;
+        if (this.id != other.id) {
+            return false;
+        }
+        if (!java.util.Objects.equals(this.symbol, other.symbol)) {
+            return false;
+        }
+        if (Double.compare(this.price, other.price) != 0) {
+            return false;
+        }
+        if (this.quantity != other.quantity) {
+            return false;
+        }
+        if (this.buy != other.buy) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code computed from the fields of this Trade instance.
+     */
+    @Override
+    public int hashCode() {
+        int result = 1;
+        result = 31 * result + Long.hashCode(this.id);
+        result = 31 * result + (this.symbol == null ? 0 : this.symbol.hashCode());
+        result = 31 * result + Double.hashCode(this.price);
+        result = 31 * result + this.quantity;
+        result = 31 * result + Boolean.hashCode(this.buy);
+        return result;
+    }
+}
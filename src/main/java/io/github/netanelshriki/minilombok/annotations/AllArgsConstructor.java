@@ -9,6 +9,6 @@ import java.lang.annotation.Target;
  * Generates a constructor with parameters for all fields in the class.
  */
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface AllArgsConstructor {
 }
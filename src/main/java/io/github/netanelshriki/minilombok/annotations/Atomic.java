@@ -0,0 +1,16 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes an int, long or reference field volatile and generates lock-free
+ * {@code compareAndSetX}, {@code getAndSetX} and {@code lazySetX} methods backed by a static
+ * field updater. Numeric fields also get {@code getAndAddX} and {@code incrementX}.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.CLASS)
+public @interface Atomic {
+}
@@ -0,0 +1,17 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates {@code writeTo(ByteBuffer)} and {@code static readFrom(ByteBuffer)} methods
+ * that encode the fields in declaration order, in the buffer's byte order.
+ * Supported field types are primitives and {@code String}, which is written as a
+ * length-prefixed UTF-8 sequence.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface BinaryCodec {
+}
@@ -0,0 +1,22 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a fluent builder for the class.
+ * The builder writes straight into the instance it is building and can be reused
+ * after {@code build()} or {@code reset()}, so one builder per thread is enough.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Builder {
+
+    /**
+     * Also generates a static {@code localBuilder()} method returning a reset
+     * builder cached per thread.
+     */
+    boolean threadLocal() default false;
+}
@@ -0,0 +1,15 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a companion {@code XColumns} container that stores many instances of this
+ * class as one array per field (struct of arrays) instead of one object per instance.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Columnar {
+}
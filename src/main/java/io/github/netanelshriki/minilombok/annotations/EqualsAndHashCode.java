@@ -0,0 +1,28 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates equals and hashCode methods for the class.
+ * Fields are compared by type without boxing: primitives with {@code ==} or
+ * {@code Float/Double.compare}, arrays with {@code Arrays.equals}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface EqualsAndHashCode {
+
+    /**
+     * Names of fields to leave out of equals and hashCode.
+     */
+    String[] exclude() default {};
+
+    /**
+     * Caches the hash code after it is first computed.
+     * Only use this when no field is changed after construction; classes that also get
+     * setters, {@code @Atomic} updates or other generated mutators are rejected.
+     */
+    boolean cacheHashCode() default false;
+}
@@ -0,0 +1,18 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a companion {@code XView} class that reads fixed-layout records of this class
+ * straight from a {@code ByteBuffer} or {@code MappedByteBuffer}, without creating an
+ * instance per record. Fields are laid out in declaration order with no padding, the
+ * same layout {@code @BinaryCodec} writes. Only primitive fields are supported, and the class
+ * needs at least one instance field.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface FlyweightView {
+}
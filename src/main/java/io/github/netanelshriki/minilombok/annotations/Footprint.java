@@ -0,0 +1,38 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates memory footprint estimates for the class, for weight-based cache eviction without
+ * reflection or instrumentation: a static {@code shallowSizeEstimate()} computed at compile time
+ * from the generated field layout, and {@code retainedSizeEstimate()}, which also counts the
+ * strings, arrays and nested {@code @Footprint} objects the instance refers to.
+ *
+ * <p>Estimates assume a 64-bit HotSpot layout and, unless {@link #compactStrings()} is false, the
+ * string layout of JDK 9 and later. Fields inherited from a superclass are not counted.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Footprint {
+
+    /**
+     * Whether references and class pointers are compressed, as on heaps below 32 GB.
+     */
+    boolean compressedOops() default true;
+
+    /**
+     * Object alignment in bytes, a power of two from 8 to 256.
+     */
+    int objectAlignment() default 8;
+
+    /**
+     * Whether strings are compact, as on JDK 9 and later, and counted with one byte per character.
+     * Strings are sized from their length alone, so text outside Latin-1, which compact strings
+     * store with two bytes per character, is underestimated. Set to false on JDK 8, whose strings
+     * always hold a {@code char[]}.
+     */
+    boolean compactStrings() default true;
+}
@@ -10,6 +10,15 @@ import java.lang.annotation.Target;
  * Can be applied to a class (for all fields) or individual fields.
  */
 @Target({ElementType.TYPE, ElementType.FIELD})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Getter {
+
+    /**
+     * Computes the value of a {@code private final} field from its initializer on the first
+     * call to the getter instead of at construction, and caches it. Only valid on fields.
+     * The initializer runs at most once, even when the getter is called concurrently.
+     * The initializer is copied through javac's tree API, so this fails to compile where javac's
+     * processing environment is wrapped, as in Gradle's incremental compilation.
+     */
+    boolean lazy() default false;
 }
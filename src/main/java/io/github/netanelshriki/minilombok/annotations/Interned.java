@@ -0,0 +1,28 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes the generated static factory ({@code create} or the {@code @Value} static constructor)
+ * return a canonical instance when an equal one was created recently. Instances are kept in a
+ * fixed-size, lock-free table where newer instances replace older ones on collision, so unused
+ * instances can still be collected. Only the factory interns; constructors, builders and
+ * decoders always create new instances. The class must not have setters.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Interned {
+
+    /**
+     * Number of slots in the intern table, rounded up to a power of two.
+     */
+    int capacity() default 1024;
+
+    /**
+     * Also deduplicates {@code String} arguments through a shared bounded table before interning.
+     */
+    boolean strings() default false;
+}
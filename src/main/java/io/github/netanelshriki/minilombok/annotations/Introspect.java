@@ -0,0 +1,16 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a static accessor table for the class's fields.
+ * Frameworks can read and write fields by index, or look up an index by name,
+ * through plain switch statements instead of reflection.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Introspect {
+}
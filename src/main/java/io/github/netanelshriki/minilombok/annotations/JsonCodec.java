@@ -0,0 +1,16 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates {@code writeJson(Appendable)}, {@code toJson()} and streaming {@code readJson}
+ * methods without reflection. Fields may be primitives, strings, enums or other
+ * {@code @JsonCodec} classes. Unknown fields are skipped when reading.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface JsonCodec {
+}
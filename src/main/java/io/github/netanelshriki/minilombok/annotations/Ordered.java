@@ -0,0 +1,46 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes the class implement {@code Comparable} with a generated {@code compareTo} that compares
+ * the given keys in order, and generates a static {@code Comparator} constant per key.
+ * Primitive keys are compared without boxing; other keys must be {@code Comparable}.
+ * Without keys, every field is a key in declaration order.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Ordered {
+
+    /**
+     * Fields to compare, most significant first.
+     */
+    Key[] value() default {};
+
+    /**
+     * A field compared by {@link Ordered}.
+     */
+    @Target({})
+    @Retention(RetentionPolicy.CLASS)
+    @interface Key {
+
+        /**
+         * Name of the field.
+         */
+        String value();
+
+        /**
+         * Sorts larger values first.
+         */
+        boolean descending() default false;
+
+        /**
+         * Sorts null before every other value instead of after, regardless of
+         * {@link #descending()}.
+         */
+        boolean nullsFirst() default false;
+    }
+}
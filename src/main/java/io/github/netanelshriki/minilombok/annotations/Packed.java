@@ -0,0 +1,23 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Stores small fields as bit ranges of shared {@code long} words instead of separate fields.
+ * On a class, every boolean and enum field is packed. On a byte, short, char or int field,
+ * packs that field into {@link #bits()} bits.
+ * Packed fields are only reachable through the generated methods.
+ */
+@Target({ElementType.TYPE, ElementType.FIELD})
+@Retention(RetentionPolicy.CLASS)
+public @interface Packed {
+
+    /**
+     * Number of bits of a packed integer field. Values are stored unsigned, so they must lie
+     * between 0 and 2^bits - 1 unless the field is packed at its full width.
+     */
+    int bits() default 0;
+}
@@ -0,0 +1,30 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a per-thread pool of instances: static {@code acquire()} methods that reuse a
+ * released instance when one is available, {@code release()} to return an instance, and
+ * {@code reset()}, which sets every field back to its default value.
+ * An instance must not be used after it is released, and releasing it twice without acquiring
+ * it in between throws an {@link IllegalStateException}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Pooled {
+
+    /**
+     * Maximum number of released instances kept per thread. Instances released to a full
+     * pool are left to the garbage collector.
+     */
+    int capacity() default 16;
+
+    /**
+     * Also counts pool hits, misses and overflows, readable through static
+     * {@code poolHits()}, {@code poolMisses()} and {@code poolOverflows()} methods.
+     */
+    boolean stats() default false;
+}
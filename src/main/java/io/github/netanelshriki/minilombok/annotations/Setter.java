@@ -10,6 +10,6 @@ import java.lang.annotation.Target;
  * Can be applied to a class (for all fields) or individual fields.
  */
 @Target({ElementType.TYPE, ElementType.FIELD})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Setter {
 }
@@ -7,8 +7,28 @@ import java.lang.annotation.Target;
 
 /**
  * Generates a toString method for the class.
+ *
+ * <p>Setting any limit bounds the cost of printing large or cyclic object graphs: output is
+ * cut after {@code maxLength} characters, containers and arrays show at most
+ * {@code maxElements} elements, and objects nested deeper than {@code maxDepth} levels, or
+ * already being printed on the same thread, are replaced by a marker. {@code -1} means no limit.
  */
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface ToString {
+
+    /**
+     * Maximum number of characters appended, not counting the trailing {@code ...} of cut output.
+     */
+    int maxLength() default -1;
+
+    /**
+     * Maximum number of elements shown per collection, map or array.
+     */
+    int maxElements() default -1;
+
+    /**
+     * Maximum number of nested {@code @ToString} objects shown below this one.
+     */
+    int maxDepth() default -1;
 }
@@ -0,0 +1,18 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records which fields generated setters changed in a {@code long} dirty mask, one bit per
+ * field in declaration order, and generates {@code dirtyMask()}, {@code clearDirty()} and a
+ * change visitor. With {@link BinaryCodec}, also generates {@code writeDeltaTo} and
+ * {@code readDelta}, which encode only the changed fields.
+ * Supports classes with up to 64 fields.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface TrackChanges {
+}
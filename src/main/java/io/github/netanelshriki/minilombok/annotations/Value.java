@@ -0,0 +1,21 @@
+package io.github.netanelshriki.minilombok.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes the class immutable: all fields become private and final, and the class
+ * gets a constructor with parameters for all fields and getters, but no setters.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface Value {
+
+    /**
+     * Name of a static factory method that calls the constructor.
+     * When empty, no factory method is generated.
+     */
+    String staticConstructor() default "";
+}
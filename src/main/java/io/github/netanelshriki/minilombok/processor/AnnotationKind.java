@@ -0,0 +1,52 @@
+package io.github.netanelshriki.minilombok.processor;
+
+import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
+import io.github.netanelshriki.minilombok.annotations.Atomic;
+import io.github.netanelshriki.minilombok.annotations.BinaryCodec;
+import io.github.netanelshriki.minilombok.annotations.Columnar;
+import io.github.netanelshriki.minilombok.annotations.Builder;
+import io.github.netanelshriki.minilombok.annotations.EqualsAndHashCode;
+import io.github.netanelshriki.minilombok.annotations.FlyweightView;
+import io.github.netanelshriki.minilombok.annotations.Footprint;
+import io.github.netanelshriki.minilombok.annotations.Getter;
+import io.github.netanelshriki.minilombok.annotations.Interned;
+import io.github.netanelshriki.minilombok.annotations.Introspect;
+import io.github.netanelshriki.minilombok.annotations.JsonCodec;
+import io.github.netanelshriki.minilombok.annotations.Ordered;
+import io.github.netanelshriki.minilombok.annotations.Packed;
+import io.github.netanelshriki.minilombok.annotations.Pooled;
+import io.github.netanelshriki.minilombok.annotations.Setter;
+import io.github.netanelshriki.minilombok.annotations.ToString;
+import io.github.netanelshriki.minilombok.annotations.TrackChanges;
+import io.github.netanelshriki.minilombok.annotations.Value;
+
+/**
+ * The Mini Lombok annotations recognized during element discovery.
+ */
+enum AnnotationKind {
+    ALL_ARGS_CONSTRUCTOR(AllArgsConstructor.class),
+    GETTER(Getter.class),
+    SETTER(Setter.class),
+    TO_STRING(ToString.class),
+    EQUALS_AND_HASH_CODE(EqualsAndHashCode.class),
+    VALUE(Value.class),
+    BUILDER(Builder.class),
+    INTROSPECT(Introspect.class),
+    BINARY_CODEC(BinaryCodec.class),
+    FLYWEIGHT_VIEW(FlyweightView.class),
+    COLUMNAR(Columnar.class),
+    PACKED(Packed.class),
+    ATOMIC(Atomic.class),
+    TRACK_CHANGES(TrackChanges.class),
+    POOLED(Pooled.class),
+    ORDERED(Ordered.class),
+    JSON_CODEC(JsonCodec.class),
+    INTERNED(Interned.class),
+    FOOTPRINT(Footprint.class);
+
+    final String qualifiedName;
+
+    AnnotationKind(Class<? extends java.lang.annotation.Annotation> annotationClass) {
+        this.qualifiedName = annotationClass.getCanonicalName();
+    }
+}
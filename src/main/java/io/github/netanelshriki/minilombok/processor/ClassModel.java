@@ -0,0 +1,110 @@
+package io.github.netanelshriki.minilombok.processor;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact model of an annotated class, built in a single pass over its members and
+ * shared by every processing step.
+ *
+ * <p>Everything the source renderer needs is copied out of the {@link TypeElement} into
+ * strings while discovering the class, so rendering never touches the compiler's element
+ * model and can run off the processor thread.
+ */
+final class ClassModel {
+    final TypeElement element;
+    final String packageName;
+    final String simpleName;
+    final String qualifiedName;
+    final Map<AnnotationKind, AnnotationMirror> annotations = new EnumMap<>(AnnotationKind.class);
+    // Source form of every annotation on the class, Mini Lombok or not
+    final List<String> annotationSources = new ArrayList<>();
+    // Superclass, or null when the class extends Object directly
+    String superclass;
+    final List<String> interfaces = new ArrayList<>();
+    // Imports of the compilation unit, only kept when source of the class is copied verbatim
+    final List<String> imports = new ArrayList<>();
+    // All declared fields, including static ones, in declaration order
+    final List<FieldModel> declaredFields = new ArrayList<>();
+    // Instance fields in declaration order, except lazily computed ones
+    final List<FieldModel> fields = new ArrayList<>();
+    final List<MethodModel> declaredMethods = new ArrayList<>();
+    final List<MiniLombokProcessor.GeneratedMethod> methods = new ArrayList<>();
+    // @Value class: final class with private final instance fields
+    boolean immutable;
+    // Name of the static factory generated next to the @Value constructor, or empty
+    String staticConstructor = "";
+    // Whether the generated builder is also cached per thread
+    boolean threadLocalBuilder;
+    // Whether the generated hashCode is cached in a transient field
+    boolean cacheHashCode;
+    // Whether setters record changed fields in a dirty mask
+    boolean trackChanges;
+    // Limits of the generated toString, -1 when unlimited
+    int toStringMaxLength = -1;
+    int toStringMaxElements = -1;
+    int toStringMaxDepth = -1;
+    // Per-thread pool size of a @Pooled class, and whether pool counters are kept
+    int poolCapacity;
+    boolean poolStats;
+    // Slots of the intern table of an @Interned class, 0 when instances are not interned
+    int internCapacity;
+    // Whether String arguments of the interning factory are deduplicated
+    boolean internStrings;
+    // Object alignment of a @Footprint class, 0 when no estimates are generated, and whether
+    // its layout assumes compressed oops and compact strings
+    int footprintAlignment;
+    boolean footprintCompressedOops;
+    boolean footprintCompactStrings;
+    // Keys of an @Ordered class, most significant first
+    final List<SortKey> sortKeys = new ArrayList<>();
+    // Number of long words holding @Packed fields
+    int packedWords;
+    // Only set when processor metrics are collected
+    ProcessorStats.ClassStats stats;
+
+    ClassModel(TypeElement element, String packageName) {
+        this.element = element;
+        this.packageName = packageName;
+        this.simpleName = element.getSimpleName().toString();
+        this.qualifiedName = element.getQualifiedName().toString();
+    }
+
+    boolean has(AnnotationKind kind) {
+        return annotations.containsKey(kind);
+    }
+
+    /**
+     * A field compared by the generated compareTo, with its sort direction and null placement.
+     */
+    static final class SortKey {
+        final FieldModel field;
+        final boolean descending;
+        final boolean nullsFirst;
+
+        SortKey(FieldModel field, boolean descending, boolean nullsFirst) {
+            this.field = field;
+            this.descending = descending;
+            this.nullsFirst = nullsFirst;
+        }
+    }
+
+    /**
+     * A non-abstract method declared by the class, reduced to its name and signature.
+     */
+    static final class MethodModel {
+        final String name;
+        final String returnType;
+        final List<String> parameters;
+
+        MethodModel(String name, String returnType, List<String> parameters) {
+            this.name = name;
+            this.returnType = returnType;
+            this.parameters = parameters;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.netanelshriki.minilombok.processor;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.Types;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact model of a field of an annotated class.
+ */
+final class FieldModel {
+    final VariableElement element;
+    final String name;
+    // Source form of the field type
+    final String type;
+    // Source form of the erased field type, usable in casts and class literals
+    final String erasure;
+    final TypeKind kind;
+    // Kind of the array component, or null when the field is not an array
+    final TypeKind componentKind;
+    final Set<Modifier> modifiers;
+    final Map<AnnotationKind, AnnotationMirror> annotations = new EnumMap<>(AnnotationKind.class);
+    // The field type is a @ToString class of this compilation, so it has an appendTo method
+    boolean appendable;
+    // The field type is a @JsonCodec class of this compilation, so it has writeJson and readJson
+    boolean jsonCodec;
+    // The field type is a @Footprint class of this compilation, so it has retainedSizeEstimate
+    boolean footprint;
+    // Number of constants when the field type is an enum, otherwise -1
+    int enumConstants = -1;
+    // Location of a @Packed field: index of its long word, bit offset and width.
+    // packedWord is -1 when the field is stored as a regular field.
+    int packedWord = -1;
+    int packedShift;
+    int packedBits;
+    // Volatile field updated through a static field updater
+    boolean atomic;
+    // @Getter(lazy = true) field, computed from its initializer on first access
+    boolean lazy;
+    // Source of the field initializer, or null when it has none or it cannot be read
+    String initializer;
+
+    FieldModel(VariableElement element, Types typeUtils) {
+        this.element = element;
+        this.name = element.getSimpleName().toString();
+        this.type = element.asType().toString();
+        this.erasure = typeUtils.erasure(element.asType()).toString();
+        this.kind = element.asType().getKind();
+        this.componentKind = kind == TypeKind.ARRAY
+                ? ((ArrayType) element.asType()).getComponentType().getKind()
+                : null;
+        this.modifiers = EnumSet.noneOf(Modifier.class);
+        this.modifiers.addAll(element.getModifiers());
+    }
+
+    boolean has(AnnotationKind kind) {
+        return annotations.containsKey(kind);
+    }
+
+    boolean isString() {
+        return type.equals("java.lang.String");
+    }
+
+    boolean isEnum() {
+        return enumConstants >= 0;
+    }
+
+    boolean isPacked() {
+        return packedWord >= 0;
+    }
+
+    boolean isStatic() {
+        return modifiers.contains(Modifier.STATIC);
+    }
+}
@@ -1,10 +1,6 @@
 package io.github.netanelshriki.minilombok.processor;
 
 import com.google.auto.service.AutoService;
-import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
-import io.github.netanelshriki.minilombok.annotations.Getter;
-import io.github.netanelshriki.minilombok.annotations.Setter;
-import io.github.netanelshriki.minilombok.annotations.ToString;
 
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
@@ -17,8 +13,16 @@ import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -27,19 +31,60 @@ import java.util.stream.Collectors;
 @AutoService(Processor.class)
 @SupportedAnnotationTypes({
         "io.github.netanelshriki.minilombok.annotations.AllArgsConstructor",
+        "io.github.netanelshriki.minilombok.annotations.Atomic",
+        "io.github.netanelshriki.minilombok.annotations.BinaryCodec",
+        "io.github.netanelshriki.minilombok.annotations.Columnar",
+        "io.github.netanelshriki.minilombok.annotations.Builder",
+        "io.github.netanelshriki.minilombok.annotations.EqualsAndHashCode",
+        "io.github.netanelshriki.minilombok.annotations.FlyweightView",
+        "io.github.netanelshriki.minilombok.annotations.Footprint",
         "io.github.netanelshriki.minilombok.annotations.Getter",
+        "io.github.netanelshriki.minilombok.annotations.Interned",
+        "io.github.netanelshriki.minilombok.annotations.Introspect",
+        "io.github.netanelshriki.minilombok.annotations.JsonCodec",
+        "io.github.netanelshriki.minilombok.annotations.Ordered",
+        "io.github.netanelshriki.minilombok.annotations.Packed",
+        "io.github.netanelshriki.minilombok.annotations.Pooled",
         "io.github.netanelshriki.minilombok.annotations.Setter",
-        "io.github.netanelshriki.minilombok.annotations.ToString"
+        "io.github.netanelshriki.minilombok.annotations.ToString",
+        "io.github.netanelshriki.minilombok.annotations.TrackChanges",
+        "io.github.netanelshriki.minilombok.annotations.Value"
 })
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
-@SupportedOptions({"lombok.addGeneratedAnnotation"})
+@SupportedOptions({
+        "lombok.addGeneratedAnnotation",
+        MiniLombokProcessor.PARALLEL_OPTION,
+        MiniLombokProcessor.STATS_OPTION
+})
 public class MiniLombokProcessor extends AbstractProcessor {
 
+    /**
+     * Number of threads used to render generated sources. Values above 1 render every class
+     * of a round on a fork-join pool; files are still written in discovery order.
+     */
+    static final String PARALLEL_OPTION = "minilombok.parallel";
+
+    /**
+     * Path of a JSON report with per-round and per-class processing metrics, written when
+     * processing is over. A one-line summary is also reported as a NOTE.
+     */
+    static final String STATS_OPTION = "minilombok.stats";
+
     private Types typeUtils;
     private Elements elementUtils;
     private Filer filer;
     private Messager messager;
-    private Map<TypeElement, List<GeneratedMethod>> generatedMethods = new HashMap<>();
+    // javac's tree API, used to copy initializers of lazy fields; null on other compilers and
+    // behind wrapping environments
+    private SourceTrees trees;
+    private Map<Element, AnnotationKind> annotationKinds = new HashMap<>();
+    private List<ClassModel> generatedClasses = new ArrayList<>();
+    private int parallelism = 1;
+    private ForkJoinPool renderPool;
+    // Only set when STATS_OPTION is given
+    private ProcessorStats stats;
+    private String statsPath;
+    private long elementsScanned;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -48,29 +93,79 @@ public class MiniLombokProcessor extends AbstractProcessor {
         elementUtils = processingEnv.getElementUtils();
         filer = processingEnv.getFiler();
         messager = processingEnv.getMessager();
+        trees = SourceTrees.create(processingEnv);
+
+        String parallelOption = processingEnv.getOptions().get(PARALLEL_OPTION);
+        if (parallelOption != null) {
+            try {
+                parallelism = Math.max(1, Integer.parseInt(parallelOption.trim()));
+            } catch (NumberFormatException e) {
+                messager.printMessage(Diagnostic.Kind.WARNING,
+                        "Ignoring invalid " + PARALLEL_OPTION + " value: " + parallelOption);
+            }
+        }
+
+        statsPath = processingEnv.getOptions().get(STATS_OPTION);
+        if (statsPath != null) {
+            stats = new ProcessorStats();
+        }
+
+        // Resolve annotation types once so discovery can match mirrors by identity
+        for (AnnotationKind kind : AnnotationKind.values()) {
+            TypeElement annotationType = elementUtils.getTypeElement(kind.qualifiedName);
+            if (annotationType != null) {
+                annotationKinds.put(annotationType, kind);
+            }
+        }
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        // Clear previously generated methods for new round
-        generatedMethods.clear();
+        // Clear previously generated classes for new round
+        generatedClasses.clear();
+        ProcessorStats.RoundStats roundStats = stats != null ? stats.startRound() : null;
 
         try {
-            // Collect all classes to process
-            Set<TypeElement> classElements = new HashSet<>();
-            collectClassesWithAnnotation(classElements, roundEnv, AllArgsConstructor.class);
-            collectClassesWithAnnotation(classElements, roundEnv, Getter.class);
-            collectClassesWithAnnotation(classElements, roundEnv, Setter.class);
-            collectClassesWithAnnotation(classElements, roundEnv, ToString.class);
+            // Discover all annotated classes in a single pass over the root elements
+            long start = System.nanoTime();
+            elementsScanned = 0;
+            List<ClassModel> classModels = new ArrayList<>();
+            for (Element rootElement : roundEnv.getRootElements()) {
+                discoverClass(rootElement, classModels);
+            }
+            if (roundStats != null) {
+                roundStats.elementsScanned = elementsScanned;
+                roundStats.discoveryNanos = System.nanoTime() - start;
+            }
 
             // Process each class
-            for (TypeElement classElement : classElements) {
-                processClass(classElement, roundEnv);
+            for (ClassModel classModel : classModels) {
+                if (roundStats != null) {
+                    classModel.stats = roundStats.startClass(classModel);
+                    start = System.nanoTime();
+                    processClass(classModel);
+                    classModel.stats.processClassNanos = System.nanoTime() - start;
+                } else {
+                    processClass(classModel);
+                }
             }
 
-            // Generate code for all processed classes
-            for (Map.Entry<TypeElement, List<GeneratedMethod>> entry : generatedMethods.entrySet()) {
-                generateClassFile(entry.getKey(), entry.getValue());
+            // Render all processed classes, then write them in discovery order
+            start = System.nanoTime();
+            List<List<RenderedFile>> renderedFiles = renderClasses(generatedClasses);
+            for (int i = 0; i < generatedClasses.size(); i++) {
+                ClassModel classModel = generatedClasses.get(i);
+                for (RenderedFile file : renderedFiles.get(i)) {
+                    generateClassFile(classModel, file);
+                }
+            }
+            if (roundStats != null) {
+                roundStats.generateClassFileNanos = System.nanoTime() - start;
+                for (ClassModel classModel : classModels) {
+                    if (classModel.stats != null) {
+                        roundStats.record(classModel.stats);
+                    }
+                }
             }
 
         } catch (Exception e) {
@@ -78,347 +173,3174 @@ public class MiniLombokProcessor extends AbstractProcessor {
             e.printStackTrace();
         }
 
+        if (roundEnv.processingOver()) {
+            if (renderPool != null) {
+                renderPool.shutdown();
+                renderPool = null;
+            }
+            if (stats != null) {
+                writeStats();
+            }
+        }
+
         return true;
     }
 
-    private <T extends java.lang.annotation.Annotation> void collectClassesWithAnnotation(
-            Set<TypeElement> classes, RoundEnvironment roundEnv, Class<T> annotationClass) {
-        // Add classes with the annotation
-        for (Element element : roundEnv.getElementsAnnotatedWith(annotationClass)) {
-            if (element.getKind() == ElementKind.CLASS) {
-                classes.add((TypeElement) element);
-            } else if (element.getKind() == ElementKind.FIELD) {
-                // If the annotation is on a field, add the enclosing class
-                Element enclosingElement = element.getEnclosingElement();
-                if (enclosingElement.getKind() == ElementKind.CLASS) {
-                    classes.add((TypeElement) enclosingElement);
+    private void writeStats() {
+        try {
+            Path path = Paths.get(statsPath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, stats.toJson().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            messager.printMessage(Diagnostic.Kind.WARNING,
+                    "Could not write " + STATS_OPTION + " report to " + statsPath + ": " + e.getMessage());
+        }
+        messager.printMessage(Diagnostic.Kind.NOTE, stats.summary());
+    }
+
+    /**
+     * Renders the files of every class, in parallel when {@link #PARALLEL_OPTION} allows it.
+     * The returned list is in the same order as {@code classModels}.
+     */
+    private List<List<RenderedFile>> renderClasses(List<ClassModel> classModels) {
+        if (parallelism <= 1 || classModels.size() < 2) {
+            List<List<RenderedFile>> files = new ArrayList<>(classModels.size());
+            for (ClassModel classModel : classModels) {
+                files.add(timedRenderFiles(classModel));
+            }
+            return files;
+        }
+
+        if (renderPool == null) {
+            renderPool = new ForkJoinPool(parallelism);
+        }
+        List<ForkJoinTask<List<RenderedFile>>> tasks = new ArrayList<>(classModels.size());
+        for (ClassModel classModel : classModels) {
+            tasks.add(renderPool.submit(() -> timedRenderFiles(classModel)));
+        }
+        List<List<RenderedFile>> files = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<List<RenderedFile>> task : tasks) {
+            files.add(task.join());
+        }
+        return files;
+    }
+
+    private List<RenderedFile> timedRenderFiles(ClassModel classModel) {
+        if (classModel.stats == null) {
+            return renderFiles(classModel);
+        }
+        long start = System.nanoTime();
+        List<RenderedFile> files = renderFiles(classModel);
+        classModel.stats.generateClassFileNanos += System.nanoTime() - start;
+        return files;
+    }
+
+    /**
+     * Renders the annotated class itself, if any of its generated methods belong in it,
+     * followed by its companion classes.
+     */
+    private List<RenderedFile> renderFiles(ClassModel classModel) {
+        List<RenderedFile> files = new ArrayList<>(1);
+        if (classModel.methods.stream().anyMatch(method -> !method.kind.companion)) {
+            files.add(new RenderedFile(classModel.qualifiedName, renderClass(classModel)));
+        }
+        for (GeneratedMethod method : classModel.methods) {
+            if (method.kind == MethodKind.FLYWEIGHT_VIEW) {
+                files.add(new RenderedFile(companionName(classModel, "View"),
+                        renderFlyweightView(classModel, method.fields)));
+            } else if (method.kind == MethodKind.COLUMNAR) {
+                files.add(new RenderedFile(companionName(classModel, "Columns"),
+                        renderColumns(classModel, method.fields)));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Returns the qualified name of a top-level companion class generated next to the model.
+     */
+    private String companionName(ClassModel classModel, String suffix) {
+        String simpleName = classModel.simpleName + suffix;
+        return classModel.packageName.isEmpty() ? simpleName : classModel.packageName + "." + simpleName;
+    }
+
+    /**
+     * Walks a type and its member types once. Classes that carry a Mini Lombok annotation, on
+     * themselves or on a field, are modelled and added to {@code classModels} after their member
+     * classes; every other type is only searched for member types.
+     */
+    private void discoverClass(Element element, List<ClassModel> classModels) {
+        if (!isType(element)) {
+            return;
+        }
+
+        elementsScanned++;
+        TypeElement classElement = (TypeElement) element;
+        // Enums, interfaces and annotation types can only declare annotated member classes
+        boolean annotated = element.getKind() == ElementKind.CLASS && hasAnyAnnotation(classElement);
+        for (Element member : classElement.getEnclosedElements()) {
+            elementsScanned++;
+            if (isType(member)) {
+                discoverClass(member, classModels);
+            } else if (!annotated && element.getKind() == ElementKind.CLASS
+                    && member.getKind() == ElementKind.FIELD) {
+                annotated = hasAnyAnnotation(member);
+            }
+        }
+        if (!annotated) {
+            return;
+        }
+
+        ClassModel classModel = new ClassModel(classElement,
+                elementUtils.getPackageOf(classElement).getQualifiedName().toString());
+        readAnnotations(classElement, classModel.annotations);
+        for (Element member : classElement.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.FIELD) {
+                FieldModel field = new FieldModel((VariableElement) member, typeUtils);
+                readAnnotations(member, field.annotations);
+                AnnotationMirror getter = field.annotations.get(AnnotationKind.GETTER);
+                if (getter != null && booleanAttribute(getter, "lazy")) {
+                    // The initializer becomes the body of the getter
+                    field.lazy = true;
+                    field.initializer = initializerSource((VariableElement) member);
+                }
+                Element fieldType = typeUtils.asElement(member.asType());
+                field.appendable = hasAnnotation(fieldType, AnnotationKind.TO_STRING);
+                field.jsonCodec = hasAnnotation(fieldType, AnnotationKind.JSON_CODEC);
+                field.footprint = hasAnnotation(fieldType, AnnotationKind.FOOTPRINT);
+                if (fieldType != null && fieldType.getKind() == ElementKind.ENUM) {
+                    field.enumConstants = (int) fieldType.getEnclosedElements().stream()
+                            .filter(constant -> constant.getKind() == ElementKind.ENUM_CONSTANT)
+                            .count();
+                }
+                classModel.declaredFields.add(field);
+
+                // Static fields are kept in the class but never get generated methods. Lazy
+                // fields are derived state and are only reachable through their getter.
+                if (!field.isStatic() && !field.lazy) {
+                    classModel.fields.add(field);
                 }
+            } else if (member.getKind() == ElementKind.METHOD
+                    && !member.getModifiers().contains(Modifier.ABSTRACT)) {
+                // Skip abstract methods for now - would need more complex handling
+                ExecutableElement method = (ExecutableElement) member;
+                List<String> parameters = new ArrayList<>();
+                for (VariableElement param : method.getParameters()) {
+                    parameters.add(param.asType() + " " + param.getSimpleName());
+                }
+                classModel.declaredMethods.add(new ClassModel.MethodModel(
+                        method.getSimpleName().toString(), method.getReturnType().toString(), parameters));
             }
         }
+
+        snapshotDeclaration(classModel);
+        classModels.add(classModel);
     }
 
-    private void processClass(TypeElement classElement, RoundEnvironment roundEnv) {
-        String className = classElement.getSimpleName().toString();
-        
-        // Get all fields (excluding static fields)
-        List<VariableElement> fields = classElement.getEnclosedElements().stream()
-                .filter(e -> e.getKind() == ElementKind.FIELD)
-                .filter(e -> !e.getModifiers().contains(Modifier.STATIC))
-                .map(e -> (VariableElement) e)
-                .collect(Collectors.toList());
+    private static boolean isType(Element element) {
+        // Also true for records on compilers that have them
+        return element.getKind().isClass() || element.getKind().isInterface();
+    }
+
+    private void snapshotDeclaration(ClassModel classModel) {
+        TypeElement classElement = classModel.element;
+        for (AnnotationMirror annotation : classElement.getAnnotationMirrors()) {
+            classModel.annotationSources.add(annotation.toString());
+        }
+
+        TypeMirror superClass = classElement.getSuperclass();
+        if (superClass != null && !superClass.toString().equals("java.lang.Object")) {
+            classModel.superclass = superClass.toString();
+        }
+
+        for (TypeMirror anInterface : classElement.getInterfaces()) {
+            classModel.interfaces.add(anInterface.toString());
+        }
 
+        // Copied initializers may refer to imported names
+        if (trees != null && classModel.declaredFields.stream().anyMatch(field -> field.lazy)) {
+            for (String source : trees.imports(classElement)) {
+                if (!source.equals("import io.github.netanelshriki.minilombok.annotations.*;")) {
+                    classModel.imports.add(source);
+                }
+            }
+        }
+    }
+
+    private String initializerSource(VariableElement field) {
+        if (trees == null) {
+            return null;
+        }
+        return trees.initializer(field);
+    }
+
+    private void readAnnotations(Element element, Map<AnnotationKind, AnnotationMirror> found) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            AnnotationKind kind = annotationKinds.get(mirror.getAnnotationType().asElement());
+            if (kind != null) {
+                found.put(kind, mirror);
+            }
+        }
+    }
+
+    private boolean hasAnyAnnotation(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (annotationKinds.containsKey(mirror.getAnnotationType().asElement())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasAnnotation(Element element, AnnotationKind kind) {
+        if (element == null) {
+            return false;
+        }
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (annotationKinds.get(mirror.getAnnotationType().asElement()) == kind) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void processClass(ClassModel classModel) {
         // Process annotations
-        processAllArgsConstructor(classElement, fields);
-        processGetters(classElement, fields, roundEnv);
-        processSetters(classElement, fields, roundEnv);
-        processToString(classElement, fields);
+        processValue(classModel);
+        // Packing runs first so that every generator sees where packed fields live
+        processPacked(classModel);
+        processAllArgsConstructor(classModel);
+        processGetters(classModel);
+        processLazyGetters(classModel);
+        processSetters(classModel);
+        processAtomic(classModel);
+        processTrackChanges(classModel);
+        processToString(classModel);
+        processEqualsAndHashCode(classModel);
+        processOrdered(classModel);
+        processBuilder(classModel);
+        processPooled(classModel);
+        processInterned(classModel);
+        processIntrospect(classModel);
+        processBinaryCodec(classModel);
+        processJsonCodec(classModel);
+        processFlyweightView(classModel);
+        processColumnar(classModel);
+        // Last, so every synthetic field of the class is known
+        processFootprint(classModel);
+
+        if (!classModel.methods.isEmpty()) {
+            generatedClasses.add(classModel);
+        }
+
+        if (classModel.stats != null) {
+            for (GeneratedMethod method : classModel.methods) {
+                classModel.stats.methodsGenerated.merge(method.kind, 1L, Long::sum);
+            }
+        }
     }
 
-    private void processAllArgsConstructor(TypeElement classElement, List<VariableElement> fields) {
-        if (classElement.getAnnotation(AllArgsConstructor.class) != null) {
+    private void processValue(ClassModel classModel) {
+        AnnotationMirror annotation = classModel.annotations.get(AnnotationKind.VALUE);
+        if (annotation != null) {
+            classModel.immutable = true;
+            classModel.staticConstructor = String.valueOf(attribute(annotation, "staticConstructor"));
+
             GeneratedMethod constructorMethod = new GeneratedMethod();
-            constructorMethod.kind = MethodKind.CONSTRUCTOR;
-            constructorMethod.fields = fields;
+            constructorMethod.kind = MethodKind.VALUE_CONSTRUCTOR;
+            constructorMethod.fields = classModel.fields;
             
             // Add to generated methods for this class
-            generatedMethods.computeIfAbsent(classElement, k -> new ArrayList<>())
-                    .add(constructorMethod);
+            classModel.methods.add(constructorMethod);
         }
     }
 
-    private void processGetters(TypeElement classElement, List<VariableElement> fields, RoundEnvironment roundEnv) {
-        boolean classHasGetterAnnotation = classElement.getAnnotation(Getter.class) != null;
+    /**
+     * Lays out @Packed fields first-fit into long words, in declaration order. A field never
+     * straddles two words, so every packed access is a single shift and mask.
+     */
+    private void processPacked(ClassModel classModel) {
+        boolean packClass = classModel.has(AnnotationKind.PACKED);
+        List<FieldModel> packed = new ArrayList<>();
+        for (FieldModel field : classModel.declaredFields) {
+            AnnotationMirror annotation = field.annotations.get(AnnotationKind.PACKED);
+            // Class-level packing leaves @Atomic fields alone, they need a field of their own
+            if (annotation == null && !(packClass && !field.isStatic() && !field.has(AnnotationKind.ATOMIC)
+                    && (field.kind == TypeKind.BOOLEAN || field.isEnum()))) {
+                continue;
+            }
+            int bits = packedBits(field, annotation);
+            if (bits <= 0) {
+                continue;
+            }
+            if (classModel.immutable) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@Packed is not supported on @Value classes", field.element);
+                continue;
+            }
+            field.packedBits = bits;
+            packed.add(field);
+        }
+        if (packed.isEmpty()) {
+            return;
+        }
+
+        List<Integer> usedBits = new ArrayList<>();
+        for (FieldModel field : packed) {
+            int word = 0;
+            while (word < usedBits.size() && usedBits.get(word) + field.packedBits > 64) {
+                word++;
+            }
+            if (word == usedBits.size()) {
+                usedBits.add(0);
+            }
+            field.packedWord = word;
+            field.packedShift = usedBits.get(word);
+            usedBits.set(word, field.packedShift + field.packedBits);
+        }
+        classModel.packedWords = usedBits.size();
+
+        GeneratedMethod packedMethod = new GeneratedMethod();
+        packedMethod.kind = MethodKind.PACKED;
+        packedMethod.fields = packed;
         
-        for (VariableElement field : fields) {
-            boolean fieldHasGetterAnnotation = field.getAnnotation(Getter.class) != null;
+        // Add to generated methods for this class
+        classModel.methods.add(packedMethod);
+    }
+
+    /**
+     * Returns the number of bits a packed field needs, or 0 after reporting why it cannot
+     * be packed.
+     */
+    private int packedBits(FieldModel field, AnnotationMirror annotation) {
+        int bits = annotation == null ? 0 : (Integer) attribute(annotation, "bits");
+        if (field.isStatic()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@Packed does not support static fields", field.element);
+            return 0;
+        }
+        if (field.kind == TypeKind.BOOLEAN || field.isEnum()) {
+            if (bits != 0) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@Packed bits only applies to byte, short, char and int fields", field.element, annotation);
+                return 0;
+            }
+            // Enums store ordinal + 1 so that 0 can stand for null
+            return field.kind == TypeKind.BOOLEAN ? 1 : Math.max(1, 32 - Integer.numberOfLeadingZeros(field.enumConstants));
+        }
+        int width;
+        switch (field.kind) {
+            case BYTE:
+                width = 8;
+                break;
+            case SHORT:
+            case CHAR:
+                width = 16;
+                break;
+            case INT:
+                width = 32;
+                break;
+            default:
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@Packed does not support field type " + field.type, field.element);
+                return 0;
+        }
+        if (bits < 1 || bits > width) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@Packed field " + field.name + " needs bits between 1 and " + width, field.element, annotation);
+            return 0;
+        }
+        return bits;
+    }
+
+    private void processAllArgsConstructor(ClassModel classModel) {
+        if (classModel.has(AnnotationKind.ALL_ARGS_CONSTRUCTOR)) {
+            GeneratedMethod constructorMethod = new GeneratedMethod();
+            constructorMethod.kind = MethodKind.CONSTRUCTOR;
+            constructorMethod.fields = classModel.fields;
             
-            if (classHasGetterAnnotation || fieldHasGetterAnnotation) {
+            // Add to generated methods for this class
+            classModel.methods.add(constructorMethod);
+        }
+    }
+
+    private void processGetters(ClassModel classModel) {
+        // @Value classes get a getter for every field
+        boolean classHasGetterAnnotation = classModel.has(AnnotationKind.GETTER) || classModel.immutable;
+        
+        for (FieldModel field : classModel.fields) {
+            if (classHasGetterAnnotation || field.has(AnnotationKind.GETTER)) {
                 GeneratedMethod getterMethod = new GeneratedMethod();
                 getterMethod.kind = MethodKind.GETTER;
                 getterMethod.fields = Collections.singletonList(field);
                 
                 // Add to generated methods for this class
-                generatedMethods.computeIfAbsent(classElement, k -> new ArrayList<>())
-                        .add(getterMethod);
+                classModel.methods.add(getterMethod);
             }
         }
     }
 
-    private void processSetters(TypeElement classElement, List<VariableElement> fields, RoundEnvironment roundEnv) {
-        boolean classHasSetterAnnotation = classElement.getAnnotation(Setter.class) != null;
-        
-        for (VariableElement field : fields) {
-            boolean fieldHasSetterAnnotation = field.getAnnotation(Setter.class) != null;
+    private void processLazyGetters(ClassModel classModel) {
+        AnnotationMirror classGetter = classModel.annotations.get(AnnotationKind.GETTER);
+        if (classGetter != null && booleanAttribute(classGetter, "lazy")) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@Getter(lazy = true) is only supported on fields", classModel.element, classGetter);
+        }
+
+        for (FieldModel field : classModel.declaredFields) {
+            if (!field.lazy) {
+                continue;
+            }
+            String problem = null;
+            if (trees == null) {
+                problem = "@Getter(lazy = true) needs javac's tree API (com.sun.source.util.Trees) to copy the"
+                        + " field initializer, and this compiler environment does not expose it. Environments"
+                        + " that wrap javac's, such as Gradle's incremental compilation, hide it";
+            } else if (field.isStatic()) {
+                problem = "@Getter(lazy = true) does not support static fields";
+            } else if (!field.modifiers.contains(Modifier.PRIVATE) || !field.modifiers.contains(Modifier.FINAL)) {
+                problem = "@Getter(lazy = true) fields must be private final";
+            } else if (field.initializer == null) {
+                problem = "@Getter(lazy = true) fields need an initializer";
+            }
+            if (problem != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, problem, field.element);
+                continue;
+            }
+
+            GeneratedMethod getterMethod = new GeneratedMethod();
+            getterMethod.kind = MethodKind.LAZY_GETTER;
+            getterMethod.fields = Collections.singletonList(field);
             
-            if (classHasSetterAnnotation || fieldHasSetterAnnotation) {
+            // Add to generated methods for this class
+            classModel.methods.add(getterMethod);
+        }
+    }
+
+    private void processSetters(ClassModel classModel) {
+        boolean classHasSetterAnnotation = classModel.has(AnnotationKind.SETTER);
+        
+        if (classModel.immutable) {
+            // Fields of @Value classes are final, so setters are never generated
+            if (classHasSetterAnnotation || classModel.fields.stream().anyMatch(field -> field.has(AnnotationKind.SETTER))) {
+                messager.printMessage(Diagnostic.Kind.WARNING,
+                        "@Setter is ignored on @Value class " + classModel.simpleName, classModel.element);
+            }
+            return;
+        }
+        
+        for (FieldModel field : classModel.fields) {
+            if (classHasSetterAnnotation || field.has(AnnotationKind.SETTER)) {
                 GeneratedMethod setterMethod = new GeneratedMethod();
                 setterMethod.kind = MethodKind.SETTER;
                 setterMethod.fields = Collections.singletonList(field);
                 
                 // Add to generated methods for this class
-                generatedMethods.computeIfAbsent(classElement, k -> new ArrayList<>())
-                        .add(setterMethod);
+                classModel.methods.add(setterMethod);
             }
         }
     }
 
-    private void processToString(TypeElement classElement, List<VariableElement> fields) {
-        if (classElement.getAnnotation(ToString.class) != null) {
-            GeneratedMethod toStringMethod = new GeneratedMethod();
-            toStringMethod.kind = MethodKind.TOSTRING;
-            toStringMethod.fields = fields;
+    private void processAtomic(ClassModel classModel) {
+        for (FieldModel field : classModel.declaredFields) {
+            if (!field.has(AnnotationKind.ATOMIC)) {
+                continue;
+            }
+            String problem = null;
+            if (field.isStatic()) {
+                problem = "@Atomic does not support static fields";
+            } else if (classModel.immutable || field.modifiers.contains(Modifier.FINAL)) {
+                problem = "@Atomic fields cannot be final";
+            } else if (field.isPacked()) {
+                problem = "@Atomic cannot be combined with @Packed";
+            } else if (field.kind.isPrimitive() && field.kind != TypeKind.INT && field.kind != TypeKind.LONG) {
+                problem = "@Atomic only supports int, long and reference fields, not " + field.type;
+            }
+            if (problem != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, problem, field.element);
+                continue;
+            }
+
+            field.atomic = true;
+            GeneratedMethod atomicMethod = new GeneratedMethod();
+            atomicMethod.kind = MethodKind.ATOMIC;
+            atomicMethod.fields = Collections.singletonList(field);
             
             // Add to generated methods for this class
-            generatedMethods.computeIfAbsent(classElement, k -> new ArrayList<>())
-                    .add(toStringMethod);
+            classModel.methods.add(atomicMethod);
         }
     }
 
-    private void generateClassFile(TypeElement classElement, List<GeneratedMethod> methods) throws IOException {
-        String className = classElement.getSimpleName().toString();
-        String packageName = elementUtils.getPackageOf(classElement).getQualifiedName().toString();
-        
-        // Create Java file directly for the annotated class instead of a companion class
-        JavaFileObject javaFile = filer.createSourceFile(packageName + "." + className, classElement);
-        
-        // Original class content
-        List<? extends Element> elements = classElement.getEnclosedElements();
-        StringBuilder existingMethods = new StringBuilder();
-        
-        try (PrintWriter out = new PrintWriter(javaFile.openWriter())) {
-            // Package
-            if (!packageName.isEmpty()) {
-                out.println("package " + packageName + ";");
-                out.println();
-            }
-            
-            // Imports for annotations
-            out.println("// Generated by MiniLombok");
-            out.println("import io.github.netanelshriki.minilombok.annotations.*;");
-            out.println();
-            
-            // Get original annotations
-            for (AnnotationMirror annotation : classElement.getAnnotationMirrors()) {
-                out.println(annotation);
+    private void processTrackChanges(ClassModel classModel) {
+        if (classModel.has(AnnotationKind.TRACK_CHANGES)) {
+            String problem = null;
+            if (classModel.immutable) {
+                problem = "@TrackChanges is not supported on @Value classes";
+            } else if (classModel.fields.size() > 64) {
+                problem = "@TrackChanges supports at most 64 fields, " + classModel.simpleName
+                        + " has " + classModel.fields.size();
             }
-            
-            // Class declaration
-            out.print("public class " + className);
-            
-            // Add superclass/interfaces
-            TypeMirror superClass = classElement.getSuperclass();
-            if (superClass != null && !superClass.toString().equals("java.lang.Object")) {
-                out.print(" extends " + superClass);
+            if (problem != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, problem, classModel.element);
+                return;
             }
+
+            classModel.trackChanges = true;
+            GeneratedMethod trackingMethod = new GeneratedMethod();
+            trackingMethod.kind = MethodKind.TRACK_CHANGES;
+            trackingMethod.fields = classModel.fields;
             
-            List<? extends TypeMirror> interfaces = classElement.getInterfaces();
-            if (!interfaces.isEmpty()) {
-                out.print(" implements ");
-                for (int i = 0; i < interfaces.size(); i++) {
-                    if (i > 0) {
-                        out.print(", ");
-                    }
-                    out.print(interfaces.get(i));
-                }
+            // Add to generated methods for this class
+            classModel.methods.add(trackingMethod);
+        }
+    }
+
+    private void processToString(ClassModel classModel) {
+        AnnotationMirror annotation = classModel.annotations.get(AnnotationKind.TO_STRING);
+        if (annotation != null) {
+            int maxLength = (Integer) attribute(annotation, "maxLength");
+            int maxElements = (Integer) attribute(annotation, "maxElements");
+            int maxDepth = (Integer) attribute(annotation, "maxDepth");
+            if (maxLength < -1 || maxElements < -1 || maxDepth < -1) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@ToString limits must be -1 (no limit) or at least 0", classModel.element, annotation);
+                return;
             }
+            classModel.toStringMaxLength = maxLength;
+            classModel.toStringMaxElements = maxElements;
+            classModel.toStringMaxDepth = maxDepth;
             
-            out.println(" {");
+            GeneratedMethod toStringMethod = new GeneratedMethod();
+            toStringMethod.kind = MethodKind.TOSTRING;
+            toStringMethod.fields = classModel.fields;
             
-            // Keep original fields
-            for (Element element : elements) {
-                if (element.getKind() == ElementKind.FIELD) {
-                    String modifiers = element.getModifiers().stream()
-                            .map(Modifier::toString)
-                            .collect(Collectors.joining(" "));
-                    String fieldName = element.getSimpleName().toString();
-                    TypeMirror fieldType = element.asType();
-                    
-                    if (!modifiers.isEmpty()) {
-                        out.print("    " + modifiers + " ");
-                    } else {
-                        out.print("    ");
-                    }
-                    out.println(fieldType + " " + fieldName + ";");
+            // Add to generated methods for this class
+            classModel.methods.add(toStringMethod);
+        }
+    }
+
+    private void processEqualsAndHashCode(ClassModel classModel) {
+        AnnotationMirror annotation = classModel.annotations.get(AnnotationKind.EQUALS_AND_HASH_CODE);
+        if (annotation != null) {
+            List<String> excluded = stringListAttribute(annotation, "exclude");
+            for (String name : excluded) {
+                if (classModel.fields.stream().noneMatch(field -> field.name.equals(name))) {
+                    messager.printMessage(Diagnostic.Kind.WARNING,
+                            "Excluded field '" + name + "' does not exist", classModel.element, annotation);
                 }
             }
-            out.println();
-            
-            // Keep original methods
-            for (Element element : elements) {
-                if (element.getKind() == ElementKind.METHOD || element.getKind() == ElementKind.CONSTRUCTOR) {
-                    // Skip abstract methods for now - would need more complex handling
-                    if (element.getModifiers().contains(Modifier.ABSTRACT)) {
-                        continue;
-                    }
-                    
-                    // We'd need the full method body here, but that's tough without a parser
-                    // This is a simplified approach - in a real implementation you'd want 
-                    // to preserve the original method bodies
-                    if (element.getKind() == ElementKind.METHOD) {
-                        ExecutableElement method = (ExecutableElement) element;
-                        String methodName = method.getSimpleName().toString();
-                        
-                        // Skip methods we'll be generating
-                        if (isGetterMethod(methodName) || isSetterMethod(methodName) || 
-                            methodName.equals("toString") || methodName.equals("create")) {
-                            continue;
-                        }
-                    }
-                    
-                    // For this demo, we'll just keep a stub of original methods
-                    if (element.getKind() == ElementKind.METHOD) {
-                        ExecutableElement method = (ExecutableElement) element;
-                        String methodName = method.getSimpleName().toString();
-                        TypeMirror returnType = method.getReturnType();
-                        
-                        out.print("    // Original method preserved: ");
-                        out.print(returnType + " " + methodName + "(");
-                        
-                        List<? extends VariableElement> parameters = method.getParameters();
-                        for (int i = 0; i < parameters.size(); i++) {
-                            if (i > 0) {
-                                out.print(", ");
-                            }
-                            VariableElement param = parameters.get(i);
-                            out.print(param.asType() + " " + param.getSimpleName());
-                        }
-                        
-                        out.println(") { /* original implementation */ }");
-                    }
-                }
+
+            GeneratedMethod equalsMethod = new GeneratedMethod();
+            equalsMethod.kind = MethodKind.EQUALS_HASHCODE;
+            equalsMethod.fields = classModel.fields.stream()
+                    .filter(field -> !excluded.contains(field.name))
+                    .collect(Collectors.toList());
+            classModel.cacheHashCode = booleanAttribute(annotation, "cacheHashCode");
+            // A cached hash code goes stale as soon as an instance changes
+            String mutator = generatedMutator(classModel);
+            if (classModel.cacheHashCode && mutator != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@EqualsAndHashCode(cacheHashCode = true) cannot be combined with the mutators generated for "
+                                + mutator, classModel.element, annotation);
+                classModel.cacheHashCode = false;
             }
             
-            // Add constructor if annotated
-            for (GeneratedMethod method : methods) {
-                if (method.kind == MethodKind.CONSTRUCTOR) {
-                    generateConstructorMethod(out, classElement, method.fields);
+            // Add to generated methods for this class
+            classModel.methods.add(equalsMethod);
+        }
+    }
+
+    /**
+     * Returns the annotation that generates methods changing existing instances of the class,
+     * or null when there are none. Setters, atomic updates, delta decoding and @Introspect
+     * setters of mutable classes all write fields in place.
+     */
+    private String generatedMutator(ClassModel classModel) {
+        if (classModel.methods.stream().anyMatch(method -> method.kind == MethodKind.SETTER)) {
+            return "@Setter";
+        }
+        if (classModel.methods.stream().anyMatch(method -> method.kind == MethodKind.ATOMIC)) {
+            return "@Atomic";
+        }
+        if (classModel.trackChanges) {
+            return "@TrackChanges";
+        }
+        if (classModel.has(AnnotationKind.INTROSPECT) && !classModel.immutable) {
+            return "@Introspect";
+        }
+        return null;
+    }
+
+    private void processOrdered(ClassModel classModel) {
+        AnnotationMirror annotation = classModel.annotations.get(AnnotationKind.ORDERED);
+        if (annotation == null) {
+            return;
+        }
+
+        List<ClassModel.SortKey> keys = new ArrayList<>();
+        Object value = attribute(annotation, "value");
+        if (value instanceof List && !((List<?>) value).isEmpty()) {
+            for (Object element : (List<?>) value) {
+                AnnotationMirror key = (AnnotationMirror) ((AnnotationValue) element).getValue();
+                String name = String.valueOf(attribute(key, "value"));
+                FieldModel field = classModel.fields.stream()
+                        .filter(candidate -> candidate.name.equals(name))
+                        .findFirst()
+                        .orElse(null);
+                if (field == null) {
+                    messager.printMessage(Diagnostic.Kind.ERROR,
+                            "@Ordered key '" + name + "' is not an instance field", classModel.element, annotation);
+                    continue;
                 }
-            }
-            
-            // Add getters
-            for (GeneratedMethod method : methods) {
-                if (method.kind == MethodKind.GETTER) {
-                    for (VariableElement field : method.fields) {
-                        generateGetterMethod(out, field);
-                    }
+                if (keys.stream().anyMatch(existing -> existing.field == field)) {
+                    messager.printMessage(Diagnostic.Kind.ERROR,
+                            "@Ordered key '" + name + "' is listed twice", classModel.element, annotation);
+                    continue;
                 }
+                keys.add(new ClassModel.SortKey(field,
+                        booleanAttribute(key, "descending"), booleanAttribute(key, "nullsFirst")));
             }
-            
-            // Add setters
-            for (GeneratedMethod method : methods) {
-                if (method.kind == MethodKind.SETTER) {
-                    for (VariableElement field : method.fields) {
-                        generateSetterMethod(out, field);
-                    }
-                }
+        } else {
+            for (FieldModel field : classModel.fields) {
+                keys.add(new ClassModel.SortKey(field, false, false));
             }
-            
-            // Add toString
-            for (GeneratedMethod method : methods) {
-                if (method.kind == MethodKind.TOSTRING) {
-                    generateToStringMethod(out, classElement, method.fields);
-                }
+        }
+
+        // Reference keys are compared with compareTo, so they must be Comparable
+        TypeMirror comparable = typeUtils.erasure(elementUtils.getTypeElement("java.lang.Comparable").asType());
+        boolean supported = true;
+        for (ClassModel.SortKey key : keys) {
+            if (!key.field.kind.isPrimitive()
+                    && !typeUtils.isAssignable(typeUtils.erasure(key.field.element.asType()), comparable)) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@Ordered key '" + key.field.name + "' of type " + key.field.type + " is not Comparable",
+                        key.field.element);
+                supported = false;
             }
+        }
+        if (!supported) {
+            return;
+        }
+
+        classModel.sortKeys.addAll(keys);
+        if (classModel.interfaces.stream().noneMatch(name -> name.startsWith("java.lang.Comparable"))) {
+            classModel.interfaces.add("java.lang.Comparable<" + classModel.simpleName + ">");
+        }
+
+        GeneratedMethod compareMethod = new GeneratedMethod();
+        compareMethod.kind = MethodKind.COMPARE_TO;
+        compareMethod.fields = keys.stream().map(key -> key.field).collect(Collectors.toList());
+        
+        // Add to generated methods for this class
+        classModel.methods.add(compareMethod);
+    }
+
+    private void processBuilder(ClassModel classModel) {
+        AnnotationMirror annotation = classModel.annotations.get(AnnotationKind.BUILDER);
+        if (annotation != null) {
+            GeneratedMethod builderMethod = new GeneratedMethod();
+            builderMethod.kind = MethodKind.BUILDER;
+            builderMethod.fields = classModel.fields;
+            classModel.threadLocalBuilder = booleanAttribute(annotation, "threadLocal");
             
-            // Close class
-            out.println("}");
+            // Add to generated methods for this class
+            classModel.methods.add(builderMethod);
         }
     }
 
-    private boolean isGetterMethod(String methodName) {
-        return methodName.startsWith("get") || methodName.startsWith("is");
+    private void processPooled(ClassModel classModel) {
+        AnnotationMirror annotation = classModel.annotations.get(AnnotationKind.POOLED);
+        if (annotation != null) {
+            int capacity = (Integer) attribute(annotation, "capacity");
+            if (classModel.immutable) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@Pooled is not supported on @Value classes", classModel.element, annotation);
+                return;
+            }
+            if (capacity < 1) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@Pooled capacity must be at least 1", classModel.element, annotation);
+                return;
+            }
+
+            classModel.poolCapacity = capacity;
+            classModel.poolStats = booleanAttribute(annotation, "stats");
+            GeneratedMethod poolMethod = new GeneratedMethod();
+            poolMethod.kind = MethodKind.POOLED;
+            poolMethod.fields = classModel.fields;
+            
+            // Add to generated methods for this class
+            classModel.methods.add(poolMethod);
+        }
     }
-    
-    private boolean isSetterMethod(String methodName) {
-        return methodName.startsWith("set");
+
+    private void processInterned(ClassModel classModel) {
+        AnnotationMirror annotation = classModel.annotations.get(AnnotationKind.INTERNED);
+        if (annotation == null) {
+            return;
+        }
+
+        // Shared instances must never change, and need a factory to hand them out
+        String problem = null;
+        int capacity = (Integer) attribute(annotation, "capacity");
+        boolean hasFactory = classModel.immutable
+                ? !classModel.staticConstructor.isEmpty()
+                : classModel.has(AnnotationKind.ALL_ARGS_CONSTRUCTOR);
+        String mutator = generatedMutator(classModel);
+        if (mutator != null) {
+            problem = "@Interned instances are shared and cannot have the mutators generated for " + mutator;
+        } else if (classModel.has(AnnotationKind.POOLED)) {
+            problem = "@Interned cannot be combined with @Pooled";
+        } else if (!hasFactory) {
+            problem = "@Interned needs a factory: @AllArgsConstructor, or @Value with a staticConstructor";
+        } else if (capacity < 1 || capacity > 1 << 30) {
+            problem = "@Interned capacity must be between 1 and 2^30";
+        }
+        if (problem != null) {
+            messager.printMessage(Diagnostic.Kind.ERROR, problem, classModel.element, annotation);
+            return;
+        }
+
+        // A power of two lets the slot be computed with a mask
+        classModel.internCapacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        classModel.internStrings = booleanAttribute(annotation, "strings");
     }
 
-    private void generateConstructorMethod(PrintWriter out, TypeElement classElement, List<VariableElement> fields) {
-        String className = classElement.getSimpleName().toString();
-        
-        out.println();
-        out.println("    /**");
-        out.println("     * Creates a new instance of " + className + " with all fields initialized.");
+    private void processIntrospect(ClassModel classModel) {
+        if (classModel.has(AnnotationKind.INTROSPECT)) {
+            // Each field gets an index constant named after it, which must be unique
+            Map<String, FieldModel> constants = new HashMap<>();
+            boolean unique = true;
+            for (FieldModel field : classModel.fields) {
+                FieldModel clash = constants.putIfAbsent(constantName(field.name), field);
+                if (clash != null) {
+                    messager.printMessage(Diagnostic.Kind.ERROR,
+                            "@Introspect needs a distinct index constant per field, but " + field.name + " and "
+                                    + clash.name + " are both named " + constantName(field.name), field.element);
+                    unique = false;
+                }
+            }
+            if (!unique) {
+                return;
+            }
+            
+            GeneratedMethod accessorsMethod = new GeneratedMethod();
+            accessorsMethod.kind = MethodKind.ACCESSORS;
+            accessorsMethod.fields = classModel.fields;
+            
+            // Add to generated methods for this class
+            classModel.methods.add(accessorsMethod);
+        }
+    }
+
+    private void processBinaryCodec(ClassModel classModel) {
+        if (classModel.has(AnnotationKind.BINARY_CODEC)) {
+            boolean supported = true;
+            for (FieldModel field : classModel.fields) {
+                if (!field.kind.isPrimitive() && !field.isString()) {
+                    messager.printMessage(Diagnostic.Kind.ERROR,
+                            "@BinaryCodec does not support field type " + field.type, field.element);
+                    supported = false;
+                }
+            }
+            if (!supported) {
+                return;
+            }
+
+            GeneratedMethod codecMethod = new GeneratedMethod();
+            codecMethod.kind = MethodKind.BINARY_CODEC;
+            codecMethod.fields = classModel.fields;
+            
+            // Add to generated methods for this class
+            classModel.methods.add(codecMethod);
+        }
+    }
+
+    private void processJsonCodec(ClassModel classModel) {
+        if (classModel.has(AnnotationKind.JSON_CODEC)) {
+            boolean supported = true;
+            for (FieldModel field : classModel.fields) {
+                if (!field.kind.isPrimitive() && !field.isString() && !field.isEnum() && !field.jsonCodec) {
+                    messager.printMessage(Diagnostic.Kind.ERROR,
+                            "@JsonCodec does not support field type " + field.type, field.element);
+                    supported = false;
+                }
+            }
+            if (!supported) {
+                return;
+            }
+
+            GeneratedMethod jsonMethod = new GeneratedMethod();
+            jsonMethod.kind = MethodKind.JSON_CODEC;
+            jsonMethod.fields = classModel.fields;
+            
+            // Add to generated methods for this class
+            classModel.methods.add(jsonMethod);
+        }
+    }
+
+    private void processFootprint(ClassModel classModel) {
+        AnnotationMirror annotation = classModel.annotations.get(AnnotationKind.FOOTPRINT);
+        if (annotation != null) {
+            int alignment = (Integer) attribute(annotation, "objectAlignment");
+            if (alignment < 8 || alignment > 256 || Integer.bitCount(alignment) != 1) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@Footprint objectAlignment must be a power of two from 8 to 256", classModel.element, annotation);
+                return;
+            }
+            classModel.footprintAlignment = alignment;
+            classModel.footprintCompressedOops = booleanAttribute(annotation, "compressedOops");
+            classModel.footprintCompactStrings = booleanAttribute(annotation, "compactStrings");
+            
+            GeneratedMethod footprintMethod = new GeneratedMethod();
+            footprintMethod.kind = MethodKind.FOOTPRINT;
+            footprintMethod.fields = classModel.fields;
+            
+            // Add to generated methods for this class
+            classModel.methods.add(footprintMethod);
+        }
+    }
+
+    private void processFlyweightView(ClassModel classModel) {
+        if (classModel.has(AnnotationKind.FLYWEIGHT_VIEW)) {
+            // Zero-byte records would make recordCount divide by zero
+            if (classModel.fields.isEmpty()) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@FlyweightView needs at least one instance field",
+                        classModel.element, classModel.annotations.get(AnnotationKind.FLYWEIGHT_VIEW));
+                return;
+            }
+            boolean supported = true;
+            for (FieldModel field : classModel.fields) {
+                if (!field.kind.isPrimitive()) {
+                    messager.printMessage(Diagnostic.Kind.ERROR,
+                            "@FlyweightView only supports primitive fields, not " + field.type, field.element);
+                    supported = false;
+                }
+            }
+            if (!supported) {
+                return;
+            }
+
+            GeneratedMethod viewMethod = new GeneratedMethod();
+            viewMethod.kind = MethodKind.FLYWEIGHT_VIEW;
+            viewMethod.fields = classModel.fields;
+            
+            // Add to generated methods for this class
+            classModel.methods.add(viewMethod);
+        }
+    }
+
+    private void processColumnar(ClassModel classModel) {
+        if (classModel.has(AnnotationKind.COLUMNAR)) {
+            boolean supported = true;
+            for (FieldModel field : classModel.fields) {
+                if (field.kind == TypeKind.TYPEVAR) {
+                    messager.printMessage(Diagnostic.Kind.ERROR,
+                            "@Columnar does not support type variable fields", field.element);
+                    supported = false;
+                }
+            }
+            if (!supported) {
+                return;
+            }
+
+            GeneratedMethod columnsMethod = new GeneratedMethod();
+            columnsMethod.kind = MethodKind.COLUMNAR;
+            columnsMethod.fields = classModel.fields;
+            
+            // Add to generated methods for this class
+            classModel.methods.add(columnsMethod);
+        }
+    }
+
+    private Object attribute(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elementUtils.getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private boolean booleanAttribute(AnnotationMirror annotation, String name) {
+        return Boolean.TRUE.equals(attribute(annotation, name));
+    }
+
+    private List<String> stringListAttribute(AnnotationMirror annotation, String name) {
+        List<String> values = new ArrayList<>();
+        Object value = attribute(annotation, name);
+        if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                values.add(String.valueOf(((AnnotationValue) element).getValue()));
+            }
+        }
+        return values;
+    }
+
+    private void generateClassFile(ClassModel classModel, RenderedFile file) throws IOException {
+        long start = System.nanoTime();
+
+        // The annotated class is its own originating element, and the only one
+        JavaFileObject javaFile = filer.createSourceFile(file.qualifiedName, classModel.element);
+        try (Writer writer = javaFile.openWriter()) {
+            writer.write(file.source);
+        }
+
+        if (classModel.stats != null) {
+            classModel.stats.bytesWritten += file.source.getBytes(StandardCharsets.UTF_8).length;
+            classModel.stats.generateClassFileNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Renders the complete source of an annotated class. Reads only the {@link ClassModel}
+     * snapshot, so it is safe to call from any thread.
+     */
+    private String renderClass(ClassModel classModel) {
+        String className = classModel.simpleName;
+        String packageName = classModel.packageName;
+        List<GeneratedMethod> methods = classModel.methods;
+        StringWriter source = new StringWriter();
+        
+        try (PrintWriter out = new PrintWriter(source)) {
+            // Package
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            
+            // Imports for annotations
+            out.println("// Generated by MiniLombok");
+            out.println("import io.github.netanelshriki.minilombok.annotations.*;");
+            for (String anImport : classModel.imports) {
+                out.println(anImport);
+            }
+            out.println();
+            
+            // Get original annotations
+            for (String annotation : classModel.annotationSources) {
+                out.println(annotation);
+            }
+            
+            // Class declaration
+            out.print((classModel.immutable ? "public final class " : "public class ") + className);
+            
+            // Add superclass/interfaces
+            if (classModel.superclass != null) {
+                out.print(" extends " + classModel.superclass);
+            }
+            
+            List<String> interfaces = classModel.interfaces;
+            if (!interfaces.isEmpty()) {
+                out.print(" implements ");
+                for (int i = 0; i < interfaces.size(); i++) {
+                    if (i > 0) {
+                        out.print(", ");
+                    }
+                    out.print(interfaces.get(i));
+                }
+            }
+            
+            out.println(" {");
+            
+            // Keep original fields, except packed ones which live in the $packed words
+            for (FieldModel field : classModel.declaredFields) {
+                if (field.isPacked()) {
+                    continue;
+                }
+                if (field.lazy) {
+                    // Holds the computed value, boxed, or LAZY_NULL for a null result
+                    out.println("    private " + (field.modifiers.contains(Modifier.TRANSIENT) ? "transient " : "")
+                            + "volatile java.lang.Object " + field.name + ";");
+                    continue;
+                }
+                String modifiers = fieldModifiers(classModel, field).stream()
+                        .map(Modifier::toString)
+                        .collect(Collectors.joining(" "));
+                
+                if (!modifiers.isEmpty()) {
+                    out.print("    " + modifiers + " ");
+                } else {
+                    out.print("    ");
+                }
+                out.println(field.type + " " + field.name + ";");
+            }
+            
+            // Add fields backing generated methods
+            if (classModel.cacheHashCode) {
+                out.println("    private transient int $hashCodeCache;");
+            }
+            if (classModel.trackChanges) {
+                out.println("    private transient long $dirty;");
+            }
+            if (classModel.poolCapacity > 0) {
+                out.println("    private transient boolean $released;");
+            }
+            if (classModel.internCapacity > 0) {
+                out.println("    private static final java.util.concurrent.atomic.AtomicReferenceArray<" + className + "> $INTERNED"
+                        + " = new java.util.concurrent.atomic.AtomicReferenceArray<>(" + classModel.internCapacity + ");");
+            }
+            if (classModel.declaredFields.stream().anyMatch(field -> field.lazy && !field.kind.isPrimitive())) {
+                out.println("    private static final java.lang.Object $LAZY_NULL = new java.lang.Object();");
+            }
+            for (int i = 0; i < classModel.packedWords; i++) {
+                out.println("    private long $packed" + i + ";");
+            }
+            for (FieldModel field : classModel.fields) {
+                if (field.atomic) {
+                    out.println("    private static final " + updaterType(classModel, field) + " " + updaterName(field)
+                            + " = " + updaterClass(field) + ".newUpdater(" + className + ".class, "
+                            + (field.kind.isPrimitive() ? "" : field.erasure + ".class, ") + "\"" + field.name + "\");");
+                }
+                if (field.isPacked() && field.isEnum()) {
+                    out.println("    private static final " + field.erasure + "[] " + enumValuesName(field)
+                            + " = " + field.erasure + ".values();");
+                }
+            }
+            out.println();
+            
+            // Keep original methods
+            for (ClassModel.MethodModel method : classModel.declaredMethods) {
+                // We'd need the full method body here, but that's tough without a parser
+                // This is a simplified approach - in a real implementation you'd want 
+                // to preserve the original method bodies
+                String methodName = method.name;
+                
+                // Skip methods we'll be generating
+                if (isGetterMethod(methodName) || isSetterMethod(methodName) || 
+                    methodName.equals("toString") || methodName.equals("appendTo") ||
+                    methodName.equals("equals") || methodName.equals("hashCode") ||
+                    methodName.equals("compareTo") ||
+                    methodName.equals("builder") || methodName.equals("localBuilder") ||
+                    methodName.equals("writeTo") || methodName.equals("readFrom") ||
+                    methodName.equals("binarySize") ||
+                    methodName.equals("writeJson") || methodName.equals("readJson") ||
+                    methodName.equals("toJson") ||
+                    methodName.startsWith("compareAndSet") || methodName.startsWith("lazySet") ||
+                    methodName.startsWith("increment") ||
+                    methodName.equals("dirtyMask") || methodName.equals("clearDirty") ||
+                    methodName.equals("visitChanges") || methodName.equals("deltaSize") ||
+                    methodName.equals("writeDeltaTo") || methodName.equals("readDelta") ||
+                    methodName.equals("reset") || methodName.equals("acquire") ||
+                    methodName.equals("release") || methodName.startsWith("pool") ||
+                    methodName.equals("shallowSizeEstimate") || methodName.equals("retainedSizeEstimate") ||
+                    methodName.equals("create")) {
+                    continue;
+                }
+                
+                // For this demo, we'll just keep a stub of original methods
+                out.print("    // Original method preserved: ");
+                out.print(method.returnType + " " + methodName + "(");
+                out.print(String.join(", ", method.parameters));
+                out.println(") { /* original implementation */ }");
+            }
+            
+            // Add packed field accessors
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.PACKED) {
+                    for (FieldModel field : method.fields) {
+                        generatePackedAccessors(out, field);
+                    }
+                }
+            }
+            
+            // Add constructor if annotated
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.VALUE_CONSTRUCTOR) {
+                    generateValueConstructor(out, classModel, method.fields);
+                }
+            }
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.CONSTRUCTOR) {
+                    generateConstructorMethod(out, classModel, method.fields);
+                }
+            }
+            
+            // Add pool
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.POOLED) {
+                    generatePool(out, classModel, method.fields);
+                }
+            }
+            
+            // Add getters
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.GETTER) {
+                    for (FieldModel field : method.fields) {
+                        generateGetterMethod(out, field);
+                    }
+                }
+            }
+            
+            // Add lazy getters
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.LAZY_GETTER) {
+                    for (FieldModel field : method.fields) {
+                        generateLazyGetterMethod(out, field);
+                    }
+                }
+            }
+            
+            // Add setters
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.SETTER) {
+                    for (FieldModel field : method.fields) {
+                        generateSetterMethod(out, classModel, field);
+                    }
+                }
+            }
+            
+            // Add atomic accessors
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.ATOMIC) {
+                    for (FieldModel field : method.fields) {
+                        generateAtomicMethods(out, classModel, field);
+                    }
+                }
+            }
+            
+            // Add change tracking
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.TRACK_CHANGES) {
+                    generateChangeTracking(out, classModel, method.fields);
+                }
+            }
+            
+            // Add toString
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.TOSTRING) {
+                    generateToStringMethod(out, classModel, method.fields);
+                }
+            }
+            
+            // Add equals and hashCode
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.EQUALS_HASHCODE) {
+                    generateEqualsMethod(out, classModel, method.fields);
+                    generateHashCodeMethod(out, classModel, method.fields);
+                }
+            }
+            
+            // Add compareTo and comparators
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.COMPARE_TO) {
+                    generateCompareTo(out, classModel);
+                }
+            }
+            
+            // Add builder
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.BUILDER) {
+                    generateBuilder(out, classModel, method.fields);
+                }
+            }
+            
+            // Add accessor table
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.ACCESSORS) {
+                    generateAccessors(out, classModel, method.fields);
+                }
+            }
+            
+            // Add JSON codec
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.JSON_CODEC) {
+                    generateJsonCodec(out, classModel, method.fields);
+                }
+            }
+            
+            // Add binary codec
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.BINARY_CODEC) {
+                    generateBinaryCodec(out, classModel, method.fields);
+                }
+            }
+            
+            // Add footprint estimates
+            for (GeneratedMethod method : methods) {
+                if (method.kind == MethodKind.FOOTPRINT) {
+                    generateFootprint(out, classModel, method.fields);
+                }
+            }
+            
+            // Close class
+            out.println("}");
+        }
+        return source.toString();
+    }
+
+    /**
+     * Returns the modifiers a field is rendered with: instance fields of @Value classes
+     * become private and final, everything else keeps its declared modifiers.
+     */
+    private Set<Modifier> fieldModifiers(ClassModel classModel, FieldModel field) {
+        if (field.atomic) {
+            Set<Modifier> modifiers = EnumSet.of(Modifier.VOLATILE);
+            modifiers.addAll(field.modifiers);
+            return modifiers;
+        }
+        if (!classModel.immutable || field.isStatic()) {
+            return field.modifiers;
+        }
+        Set<Modifier> modifiers = EnumSet.of(Modifier.PRIVATE, Modifier.FINAL);
+        if (field.modifiers.contains(Modifier.TRANSIENT)) {
+            modifiers.add(Modifier.TRANSIENT);
+        }
+        return modifiers;
+    }
+
+    private void generatePackedAccessors(PrintWriter out, FieldModel field) {
+        String word = "this.$packed" + field.packedWord;
+        String name = capitalize(field.name);
+        long lowMask = field.packedBits == 64 ? -1L : (1L << field.packedBits) - 1;
+        String mask = hexLiteral(lowMask << field.packedShift);
+        String bits = "(" + word + " >>> " + field.packedShift + ") & " + hexLiteral(lowMask);
+        
+        out.println();
+        out.println("    private " + field.type + " $get" + name + "() {");
+        if (field.kind == TypeKind.BOOLEAN) {
+            out.println("        return (" + word + " & " + mask + ") != 0;");
+        } else if (field.isEnum()) {
+            out.println("        int ordinal = (int) (" + bits + ");");
+            out.println("        return ordinal == 0 ? null : " + enumValuesName(field) + "[ordinal - 1];");
+        } else {
+            out.println("        return (" + field.type + ") (" + bits + ");");
+        }
+        out.println("    }");
+        
+        out.println();
+        out.println("    private void $set" + name + "(" + field.type + " " + field.name + ") {");
+        String value;
+        if (field.kind == TypeKind.BOOLEAN) {
+            value = "(" + field.name + " ? " + mask + " : 0L)";
+        } else if (field.isEnum()) {
+            value = "((" + field.name + " == null ? 0L : " + field.name + ".ordinal() + 1L) << " + field.packedShift + ")";
+        } else {
+            int width = field.kind == TypeKind.INT ? 32 : field.kind == TypeKind.BYTE ? 8 : 16;
+            // Narrower fields are unsigned, so sign-extended negative values fail the check too
+            if (field.packedBits < width) {
+                out.println("        if ((" + field.name + " >>> " + field.packedBits + ") != 0) {");
+                out.println("            throw new IllegalArgumentException(\"" + field.name + " does not fit in "
+                        + field.packedBits + " bits: \" + " + field.name + ");");
+                out.println("        }");
+            }
+            value = "(((long) " + field.name + " & " + hexLiteral(lowMask) + ") << " + field.packedShift + ")";
+        }
+        out.println("        " + word + " = (" + word + " & " + hexLiteral(~(lowMask << field.packedShift)) + ") | " + value + ";");
+        out.println("    }");
+    }
+
+    /**
+     * Returns an expression reading a field of the given instance. Packed fields are read
+     * through their generated accessor.
+     */
+    private String read(FieldModel field, String instance) {
+        if (field.isPacked()) {
+            return instance + ".$get" + capitalize(field.name) + "()";
+        }
+        return instance + "." + field.name;
+    }
+
+    /**
+     * Returns a statement storing a value into a field of the given instance.
+     */
+    private String write(FieldModel field, String instance, String value) {
+        if (field.isPacked()) {
+            return instance + ".$set" + capitalize(field.name) + "(" + value + ");";
+        }
+        return instance + "." + field.name + " = " + value + ";";
+    }
+
+    private String enumValuesName(FieldModel field) {
+        return "$" + constantName(field.name) + "_VALUES";
+    }
+
+    private static String hexLiteral(long value) {
+        return "0x" + Long.toHexString(value) + "L";
+    }
+
+    private boolean isGetterMethod(String methodName) {
+        return methodName.startsWith("get") || methodName.startsWith("is");
+    }
+    
+    private boolean isSetterMethod(String methodName) {
+        return methodName.startsWith("set");
+    }
+
+    private void generateConstructorMethod(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Creates a new instance of " + className + " with all fields initialized.");
+        out.println("     */");
+        out.print("    public static " + className + " create(");
+        printParameters(out, fields);
+        
+        // Fields of @Value classes are final and can only be set by the constructor
+        if (classModel.immutable) {
+            out.println("        return new " + className + "(" + argumentList(fields) + ");");
+            out.println("    }");
+            return;
+        }
+        
+        if (classModel.internCapacity > 0) {
+            printInternLookup(out, classModel, fields);
+        }
+        
+        // Constructor body
+        out.println("        " + className + " instance = new " + className + "();");
+        for (FieldModel field : fields) {
+            String fieldName = field.name;
+            out.println("        " + write(field, "instance", fieldName));
+        }
+        if (classModel.internCapacity > 0) {
+            printInternStore(out, classModel, fields);
+        }
+        out.println("        return instance;");
+        out.println("    }");
+    }
+
+    private void generateValueConstructor(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Creates a new immutable " + className + " with all fields initialized.");
+        out.println("     */");
+        out.print("    public " + className + "(");
+        printParameters(out, fields);
+        for (FieldModel field : fields) {
+            out.println("        this." + field.name + " = " + field.name + ";");
+        }
+        out.println("    }");
+        
+        if (!classModel.staticConstructor.isEmpty()) {
+            out.println();
+            out.println("    /**");
+            out.println("     * Creates a new immutable " + className + " with all fields initialized.");
+            out.println("     */");
+            out.print("    public static " + className + " " + classModel.staticConstructor + "(");
+            printParameters(out, fields);
+            if (classModel.internCapacity > 0) {
+                printInternLookup(out, classModel, fields);
+                out.println("        " + className + " instance = new " + className + "(" + argumentList(fields) + ");");
+                printInternStore(out, classModel, fields);
+                out.println("        return instance;");
+            } else {
+                out.println("        return new " + className + "(" + argumentList(fields) + ");");
+            }
+            out.println("    }");
+        }
+    }
+
+    /**
+     * Prints one parameter per field, one per line, followed by the opening brace of the body.
+     */
+    private void printParameters(PrintWriter out, List<FieldModel> fields) {
+        if (fields.isEmpty()) {
+            out.println(") {");
+            return;
+        }
+        out.println();
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            out.print("            " + field.type + " " + field.name);
+            if (i < fields.size() - 1) {
+                out.println(",");
+            } else {
+                out.println(") {");
+            }
+        }
+    }
+
+    private String argumentList(List<FieldModel> fields) {
+        return fields.stream().map(field -> field.name).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Renders a bounded stack of released instances per thread. Acquiring and releasing only
+     * touch the current thread's stack, so neither locks nor uses atomic operations.
+     */
+    private void generatePool(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        String poolName = className + "Pool";
+        boolean stats = classModel.poolStats;
+        
+        out.println();
+        out.println("    private static final class " + poolName + " {");
+        out.println("        final " + className + "[] items = new " + className + "[" + classModel.poolCapacity + "];");
+        out.println("        int size;");
+        out.println("    }");
+        out.println();
+        out.println("    private static final ThreadLocal<" + poolName + "> $POOL = ThreadLocal.withInitial(" + poolName + "::new);");
+        if (stats) {
+            out.println("    private static final java.util.concurrent.atomic.LongAdder $POOL_HITS = new java.util.concurrent.atomic.LongAdder();");
+            out.println("    private static final java.util.concurrent.atomic.LongAdder $POOL_MISSES = new java.util.concurrent.atomic.LongAdder();");
+            out.println("    private static final java.util.concurrent.atomic.LongAdder $POOL_OVERFLOWS = new java.util.concurrent.atomic.LongAdder();");
+        }
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Sets every field of this " + className + " instance back to its default value.");
+        out.println("     */");
+        out.println("    public void reset() {");
+        for (FieldModel field : classModel.declaredFields) {
+            if (field.lazy) {
+                out.println("        this." + field.name + " = null;");
+            } else if (!field.isStatic()) {
+                out.println("        " + write(field, "this", defaultValue(field)));
+            }
+        }
+        if (classModel.cacheHashCode) {
+            out.println("        this.$hashCodeCache = 0;");
+        }
+        if (classModel.trackChanges) {
+            out.println("        this.$dirty = 0L;");
+        }
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Returns a reset " + className + " instance from the current thread's pool, or a new one");
+        out.println("     * when the pool is empty.");
+        out.println("     */");
+        out.println("    public static " + className + " acquire() {");
+        out.println("        " + poolName + " pool = $POOL.get();");
+        out.println("        if (pool.size > 0) {");
+        out.println("            " + className + " instance = pool.items[--pool.size];");
+        out.println("            pool.items[pool.size] = null;");
+        out.println("            instance.$released = false;");
+        if (stats) {
+            out.println("            $POOL_HITS.increment();");
+        }
+        out.println("            return instance;");
+        out.println("        }");
+        if (stats) {
+            out.println("        $POOL_MISSES.increment();");
+        }
+        out.println("        return new " + className + "();");
+        out.println("    }");
+        
+        // Mirrors create(...) when the class has one
+        if (!fields.isEmpty() && classModel.methods.stream().anyMatch(method -> method.kind == MethodKind.CONSTRUCTOR)) {
+            out.println();
+            out.println("    /**");
+            out.println("     * Returns a pooled " + className + " instance with all fields initialized.");
+            out.println("     */");
+            out.print("    public static " + className + " acquire(");
+            printParameters(out, fields);
+            out.println("        " + className + " instance = acquire();");
+            for (FieldModel field : fields) {
+                out.println("        " + write(field, "instance", field.name));
+            }
+            out.println("        return instance;");
+            out.println("    }");
+        }
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Resets this " + className + " instance and returns it to the current thread's pool.");
+        out.println("     * The instance must not be used afterwards, and releasing it again before it is acquired");
+        out.println("     * throws an IllegalStateException.");
+        out.println("     */");
+        out.println("    public void release() {");
+        // Pooling an instance twice would hand it to two callers of acquire
+        out.println("        if (this.$released) {");
+        out.println("            throw new IllegalStateException(\"" + className + " instance released twice\");");
+        out.println("        }");
+        out.println("        this.$released = true;");
+        out.println("        reset();");
+        out.println("        " + poolName + " pool = $POOL.get();");
+        out.println("        if (pool.size < pool.items.length) {");
+        out.println("            pool.items[pool.size++] = this;");
+        if (stats) {
+            out.println("        } else {");
+            out.println("            $POOL_OVERFLOWS.increment();");
+        }
+        out.println("        }");
+        out.println("    }");
+        
+        if (stats) {
+            String[][] counters = {
+                    {"poolHits", "$POOL_HITS", "acquire calls served from a pool"},
+                    {"poolMisses", "$POOL_MISSES", "acquire calls that allocated a new instance"},
+                    {"poolOverflows", "$POOL_OVERFLOWS", "released instances dropped because the pool was full"}
+            };
+            for (String[] counter : counters) {
+                out.println();
+                out.println("    /**");
+                out.println("     * Returns the number of " + counter[2] + ", across all threads.");
+                out.println("     */");
+                out.println("    public static long " + counter[0] + "() {");
+                out.println("        return " + counter[1] + ".sum();");
+                out.println("    }");
+            }
+        }
+    }
+
+    /**
+     * Prints the start of an interning factory: hashes the arguments and returns the instance
+     * in their slot of the intern table if it is equal, before anything is allocated.
+     */
+    private void printInternLookup(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        if (classModel.internStrings) {
+            for (FieldModel field : fields) {
+                if (field.isString()) {
+                    out.println("        " + field.name + " = io.github.netanelshriki.minilombok.runtime.Interning.dedupe(" + field.name + ");");
+                }
+            }
+        }
+        // Same hash as the generated hashCode over all fields. The arguments are named like the
+        // fields, so the locals are $-prefixed to never hide one
+        out.println("        int $hash = 1;");
+        for (FieldModel field : fields) {
+            out.println("        $hash = 31 * $hash + " + fieldHash(field, field.name) + ";");
+        }
+        out.println("        int $slot = ($hash ^ ($hash >>> 16)) & " + (classModel.internCapacity - 1) + ";");
+        out.println("        " + classModel.simpleName + " $cached = $INTERNED.get($slot);");
+        out.print("        if ($cached != null");
+        for (FieldModel field : fields) {
+            out.println();
+            out.print("                && " + fieldEquals(field, read(field, "$cached"), field.name));
+        }
+        out.println(") {");
+        out.println("            return $cached;");
+        out.println("        }");
+    }
+
+    /**
+     * Prints the end of an interning factory, which publishes the new instance in its slot.
+     */
+    private void printInternStore(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        // Seed the cached hash code when it is computed over the same fields
+        boolean sameHash = classModel.cacheHashCode && classModel.methods.stream()
+                .anyMatch(method -> method.kind == MethodKind.EQUALS_HASHCODE && method.fields.equals(fields));
+        if (sameHash) {
+            out.println("        instance.$hashCodeCache = $hash;");
+        }
+        // Racing factories may replace each other's instance, which only costs a later miss
+        out.println("        $INTERNED.set($slot, instance);");
+    }
+
+    private void generateGetterMethod(PrintWriter out, FieldModel field) {
+        String fieldName = field.name;
+        String fieldType = field.type;
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Gets the value of " + fieldName + ".");
+        out.println("     */");
+        out.println("    public " + fieldType + " " + getterName(field) + "() {");
+        out.println("        return " + read(field, "this") + ";");
+        out.println("    }");
+    }
+
+    private String getterName(FieldModel field) {
+        // Use "is" prefix for boolean fields
+        String prefix = field.kind == TypeKind.BOOLEAN ? "is" : "get";
+        return prefix + capitalize(field.name);
+    }
+
+    /**
+     * Renders a getter that runs the field initializer on first access, with double-checked
+     * locking on the volatile holder field so that reads after initialization never lock.
+     */
+    private void generateLazyGetterMethod(PrintWriter out, FieldModel field) {
+        String fieldName = field.name;
+        boolean primitive = field.kind.isPrimitive();
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Gets the value of " + fieldName + ", computing it on the first call.");
+        out.println("     */");
+        if (!primitive && !field.type.equals(field.erasure)) {
+            out.println("    @SuppressWarnings(\"unchecked\")");
+        }
+        out.println("    public " + field.type + " " + getterName(field) + "() {");
+        // The initializer runs in this method, so locals must not hide the fields it reads
+        out.println("        java.lang.Object $value = this." + fieldName + ";");
+        out.println("        if ($value == null) {");
+        out.println("            synchronized (this) {");
+        out.println("                $value = this." + fieldName + ";");
+        out.println("                if ($value == null) {");
+        out.println("                    " + field.type + " $computed = " + field.initializer + ";");
+        out.println("                    $value = " + (primitive ? "$computed" : "$computed == null ? $LAZY_NULL : $computed") + ";");
+        out.println("                    this." + fieldName + " = $value;");
+        out.println("                }");
+        out.println("            }");
+        out.println("        }");
+        if (primitive) {
+            out.println("        return (" + boxedType(field.kind) + ") $value;");
+        } else {
+            out.println("        return $value == $LAZY_NULL ? null : (" + field.type + ") $value;");
+        }
+        out.println("    }");
+    }
+
+    private void generateSetterMethod(PrintWriter out, ClassModel classModel, FieldModel field) {
+        String fieldName = field.name;
+        String fieldType = field.type;
+        String capitalizedFieldName = capitalize(fieldName);
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Sets the value of " + fieldName + ".");
+        out.println("     */");
+        out.println("    public void set" + capitalizedFieldName + "(" + fieldType + " " + fieldName + ") {");
+        if (classModel.trackChanges) {
+            out.println("        if (" + fieldDiffers(field, read(field, "this"), fieldName) + ") {");
+            out.println("            this.$dirty |= " + dirtyBit(classModel.fields.indexOf(field)) + ";");
+            out.println("        }");
+        }
+        out.println("        " + write(field, "this", fieldName));
+        out.println("    }");
+    }
+
+    private void generateAtomicMethods(PrintWriter out, ClassModel classModel, FieldModel field) {
+        String name = capitalize(field.name);
+        String type = field.type;
+        String updater = updaterName(field);
+        // The reference updater is typed by the erasure, so generic values need a cast back
+        String cast = field.kind.isPrimitive() || type.equals(field.erasure) ? "" : "(" + type + ") ";
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Atomically sets " + field.name + " to the given value if it currently equals the expected value.");
+        out.println("     */");
+        out.println("    public boolean compareAndSet" + name + "(" + type + " expect, " + type + " update) {");
+        out.println("        return " + updater + ".compareAndSet(this, expect, update);");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Atomically sets " + field.name + " and returns its previous value.");
+        out.println("     */");
+        if (!cast.isEmpty()) {
+            out.println("    @SuppressWarnings(\"unchecked\")");
+        }
+        out.println("    public " + type + " getAndSet" + name + "(" + type + " " + field.name + ") {");
+        out.println("        return " + cast + updater + ".getAndSet(this, " + field.name + ");");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Sets " + field.name + " without a full memory fence; other threads see the value eventually.");
+        out.println("     */");
+        out.println("    public void lazySet" + name + "(" + type + " " + field.name + ") {");
+        out.println("        " + updater + ".lazySet(this, " + field.name + ");");
+        out.println("    }");
+        
+        if (field.kind.isPrimitive()) {
+            out.println();
+            out.println("    /**");
+            out.println("     * Atomically adds the given delta to " + field.name + " and returns its previous value.");
+            out.println("     */");
+            out.println("    public " + type + " getAndAdd" + name + "(" + type + " delta) {");
+            out.println("        return " + updater + ".getAndAdd(this, delta);");
+            out.println("    }");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Atomically increments " + field.name + " and returns the updated value.");
+            out.println("     */");
+            out.println("    public " + type + " increment" + name + "() {");
+            out.println("        return " + updater + ".incrementAndGet(this);");
+            out.println("    }");
+        }
+    }
+
+    private String updaterName(FieldModel field) {
+        return "$" + constantName(field.name) + "_UPDATER";
+    }
+
+    private String updaterClass(FieldModel field) {
+        switch (field.kind) {
+            case INT:
+                return "java.util.concurrent.atomic.AtomicIntegerFieldUpdater";
+            case LONG:
+                return "java.util.concurrent.atomic.AtomicLongFieldUpdater";
+            default:
+                return "java.util.concurrent.atomic.AtomicReferenceFieldUpdater";
+        }
+    }
+
+    private String updaterType(ClassModel classModel, FieldModel field) {
+        return updaterClass(field) + "<" + classModel.simpleName
+                + (field.kind.isPrimitive() ? "" : ", " + field.erasure) + ">";
+    }
+
+    private void generateChangeTracking(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        String visitorName = className + "ChangeVisitor";
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Returns a mask with bit i set when a setter changed the i-th field since the last clearDirty().");
+        out.println("     */");
+        out.println("    public long dirtyMask() {");
+        out.println("        return this.$dirty;");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Marks every field of this " + className + " instance as unchanged.");
+        out.println("     */");
+        out.println("    public void clearDirty() {");
+        out.println("        this.$dirty = 0L;");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Receives the changed fields of a " + className + " instance. Every method does nothing by default.");
+        out.println("     */");
+        out.println("    public interface " + visitorName + " {");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            if (i > 0) {
+                out.println();
+            }
+            out.println("        default void " + field.name + "(" + field.type + " " + field.name + ") {");
+            out.println("        }");
+        }
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Passes every changed field to the visitor, in declaration order.");
+        out.println("     */");
+        out.println("    public void visitChanges(" + visitorName + " visitor) {");
+        out.println("        long dirty = this.$dirty;");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            out.println("        if ((dirty & " + dirtyBit(i) + ") != 0) {");
+            out.println("            visitor." + field.name + "(" + read(field, "this") + ");");
+            out.println("        }");
+        }
+        out.println("    }");
+        
+        if (classModel.methods.stream().noneMatch(method -> method.kind == MethodKind.BINARY_CODEC)) {
+            return;
+        }
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Returns the number of bytes writeDeltaTo writes for the changes of this " + className + " instance.");
+        out.println("     */");
+        out.println("    public int deltaSize() {");
+        out.println("        long dirty = this.$dirty;");
+        out.println("        int size = 8;");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            out.println("        if ((dirty & " + dirtyBit(i) + ") != 0) {");
+            if (field.isString()) {
+                out.println("            size += 4;");
+                out.println("            if (" + read(field, "this") + " != null) {");
+                out.println("                size += io.github.netanelshriki.minilombok.runtime.Utf8.encodedLength(" + read(field, "this") + ");");
+                out.println("            }");
+            } else {
+                out.println("            size += " + primitiveSize(field.kind) + ";");
+            }
+            out.println("        }");
+        }
+        out.println("        return size;");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Writes the dirty mask followed by the changed fields, in the writeTo encoding, at the");
+        out.println("     * buffer's position and advances the position past them. The mask is not cleared.");
+        out.println("     */");
+        out.println("    public void writeDeltaTo(java.nio.ByteBuffer buffer) {");
+        out.println("        long dirty = this.$dirty;");
+        out.println("        int index = buffer.position();");
+        out.println("        buffer.putLong(index, dirty);");
+        out.println("        index += 8;");
+        for (int i = 0; i < fields.size(); i++) {
+            out.println("        if ((dirty & " + dirtyBit(i) + ") != 0) {");
+            printFieldWrite(out, "            ", fields.get(i));
+            out.println("        }");
+        }
+        out.println("        buffer.position(index);");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Applies a delta written by writeDeltaTo to this " + className + " instance and advances the");
+        out.println("     * buffer's position past it. Applied fields are not marked dirty.");
+        out.println("     */");
+        out.println("    public void readDelta(java.nio.ByteBuffer buffer) {");
+        out.println("        int index = buffer.position();");
+        out.println("        long dirty = buffer.getLong(index);");
+        out.println("        index += 8;");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            out.println("        if ((dirty & " + dirtyBit(i) + ") != 0) {");
+            printFieldRead(out, "            ", field, value -> write(field, "this", value));
+            out.println("        }");
+        }
+        out.println("        buffer.position(index);");
+        out.println("    }");
+    }
+
+    private static String dirtyBit(int index) {
+        return hexLiteral(1L << index);
+    }
+
+    private void generateToStringMethod(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        if (classModel.toStringMaxLength >= 0 || classModel.toStringMaxElements >= 0 || classModel.toStringMaxDepth >= 0) {
+            generateBoundedToStringMethod(out, classModel, fields);
+            return;
+        }
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Appends a string representation of this " + className + " instance to the given builder.");
+        out.println("     */");
+        out.println("    public StringBuilder appendTo(StringBuilder sb) {");
+        out.println("        sb.append(\"" + className + "{\");");
+        
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            String label = (i > 0 ? ", " : "") + field.name + "=";
+            if (field.appendable) {
+                // Nested models write straight into the same buffer
+                out.println("        sb.append(\"" + label + "\");");
+                out.println("        if (" + read(field, "this") + " == null) {");
+                out.println("            sb.append(\"null\");");
+                out.println("        } else {");
+                out.println("            " + read(field, "this") + ".appendTo(sb);");
+                out.println("        }");
+            } else {
+                // StringBuilder has the same overloads as String.valueOf, so primitives are not boxed
+                out.println("        sb.append(\"" + label + "\").append(" + read(field, "this") + ");");
+            }
+        }
+        
+        out.println("        sb.append('}');");
+        out.println("        return sb;");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Returns a string representation of this " + className + " instance.");
+        out.println("     */");
+        out.println("    @Override");
+        out.println("    public String toString() {");
+        out.println("        return appendTo(new StringBuilder(" + estimateToStringLength(className, fields) + ")).toString();");
+        out.println("    }");
+    }
+
+    /**
+     * Renders appendTo and toString for a @ToString with limits. Every call goes through the
+     * per-thread {@code ToStrings} guard, which stops at cycles and at the depth limit and
+     * keeps the output within the length budget.
+     */
+    private void generateBoundedToStringMethod(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        String guard = "io.github.netanelshriki.minilombok.runtime.ToStrings";
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Appends a string representation of this " + className + " instance to the given builder,");
+        out.println("     * within the limits of its @ToString.");
+        out.println("     */");
+        out.println("    public StringBuilder appendTo(StringBuilder sb) {");
+        out.println("        " + guard + " guard = " + guard + ".enter(this, sb, "
+                + classModel.toStringMaxLength + ", " + classModel.toStringMaxDepth + ");");
+        out.println("        if (guard == null) {");
+        out.println("            return sb;");
+        out.println("        }");
+        out.println("        try {");
+        out.println("            sb.append(\"" + className + "{\");");
+        
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            String label = (i > 0 ? ", " : "") + field.name + "=";
+            if (i > 0) {
+                out.println("            if (guard.full(sb)) {");
+                out.println("                return sb;");
+                out.println("            }");
+            }
+            if (field.kind.isPrimitive()) {
+                out.println("            sb.append(\"" + label + "\").append(" + read(field, "this") + ");");
+            } else if (field.appendable) {
+                out.println("            sb.append(\"" + label + "\");");
+                out.println("            if (" + read(field, "this") + " == null) {");
+                out.println("                sb.append(\"null\");");
+                out.println("            } else {");
+                out.println("                " + read(field, "this") + ".appendTo(sb);");
+                out.println("            }");
+            } else {
+                out.println("            sb.append(\"" + label + "\");");
+                out.println("            guard.append(sb, " + read(field, "this") + ", " + classModel.toStringMaxElements + ");");
+            }
+        }
+        
+        out.println("            sb.append('}');");
+        out.println("            return sb;");
+        out.println("        } finally {");
+        out.println("            guard.exit(sb);");
+        out.println("        }");
+        out.println("    }");
+        
+        int capacity = estimateToStringLength(className, fields);
+        if (classModel.toStringMaxLength >= 0) {
+            capacity = Math.min(capacity, classModel.toStringMaxLength + 3);
+        }
+        out.println();
+        out.println("    /**");
+        out.println("     * Returns a string representation of this " + className + " instance.");
+        out.println("     */");
+        out.println("    @Override");
+        out.println("    public String toString() {");
+        out.println("        return appendTo(new StringBuilder(" + capacity + ")).toString();");
+        out.println("    }");
+    }
+
+    private void generateEqualsMethod(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Compares this " + className + " with another object field by field.");
+        out.println("     */");
+        out.println("    @Override");
+        out.println("    public boolean equals(Object o) {");
+        out.println("        if (o == this) {");
+        out.println("            return true;");
+        out.println("        }");
+        out.println("        if (!(o instanceof " + className + ")) {");
+        out.println("            return false;");
+        out.println("        }");
+        out.println("        " + className + " other = (" + className + ") o;");
+        if (classModel.cacheHashCode) {
+            // Two known, different hash codes settle it without comparing fields
+            out.println("        if (this.$hashCodeCache != 0 && other.$hashCodeCache != 0");
+            out.println("                && this.$hashCodeCache != other.$hashCodeCache) {");
+            out.println("            return false;");
+            out.println("        }");
+        }
+        
+        for (FieldModel field : fields) {
+            out.println("        if (" + fieldDiffers(field, read(field, "this"), read(field, "other")) + ") {");
+            out.println("            return false;");
+            out.println("        }");
+        }
+        
+        out.println("        return true;");
+        out.println("    }");
+    }
+
+    private void generateHashCodeMethod(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Returns a hash code computed from the fields of this " + className + " instance.");
+        out.println("     */");
+        out.println("    @Override");
+        out.println("    public int hashCode() {");
+        if (classModel.cacheHashCode) {
+            out.println("        int result = this.$hashCodeCache;");
+            out.println("        if (result != 0) {");
+            out.println("            return result;");
+            out.println("        }");
+            out.println("        result = 1;");
+        } else {
+            out.println("        int result = 1;");
+        }
+        
+        for (FieldModel field : fields) {
+            out.println("        result = 31 * result + " + fieldHash(field, read(field, "this")) + ";");
+        }
+        
+        if (classModel.cacheHashCode) {
+            out.println("        this.$hashCodeCache = result;");
+        }
+        out.println("        return result;");
+        out.println("    }");
+    }
+
+    private void generateBuilder(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        String builderName = className + "Builder";
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Creates a new builder for " + className + ".");
+        out.println("     */");
+        out.println("    public static " + builderName + " builder() {");
+        out.println("        return new " + builderName + "();");
+        out.println("    }");
+        
+        if (classModel.threadLocalBuilder) {
+            out.println();
+            out.println("    private static final ThreadLocal<" + builderName + "> $BUILDER = ThreadLocal.withInitial(" + builderName + "::new);");
+            out.println();
+            out.println("    /**");
+            out.println("     * Returns the builder cached for the current thread, reset and ready to use.");
+            out.println("     */");
+            out.println("    public static " + builderName + " localBuilder() {");
+            out.println("        return $BUILDER.get().reset();");
+            out.println("    }");
+        }
+        
+        out.println();
+        out.println("    /**");
+        if (classModel.immutable) {
+            out.println("     * Builder for " + className + ". Fields are final, so values are collected here and");
+            out.println("     * passed to the constructor by build(). The builder can be reused after build().");
+        } else {
+            out.println("     * Builder for " + className + " that writes straight into the instance being built.");
+            out.println("     * Building costs one allocation and no copy; the builder can be reused after build().");
+        }
+        out.println("     */");
+        out.println("    public static final class " + builderName + " {");
+        if (classModel.immutable) {
+            for (FieldModel field : fields) {
+                out.println("        private " + field.type + " " + field.name + ";");
+            }
+        } else {
+            out.println("        private " + className + " instance;");
+            out.println();
+            out.println("        private " + className + " instance() {");
+            out.println("            " + className + " current = this.instance;");
+            out.println("            if (current == null) {");
+            out.println("                current = new " + className + "();");
+            out.println("                this.instance = current;");
+            out.println("            }");
+            out.println("            return current;");
+            out.println("        }");
+        }
+        
+        for (FieldModel field : fields) {
+            out.println();
+            out.println("        public " + builderName + " " + field.name + "(" + field.type + " " + field.name + ") {");
+            if (classModel.immutable) {
+                out.println("            this." + field.name + " = " + field.name + ";");
+            } else {
+                out.println("            " + write(field, "instance()", field.name));
+            }
+            out.println("            return this;");
+            out.println("        }");
+        }
+        
+        out.println();
+        out.println("        /**");
+        out.println("         * Clears every value set so far, so the builder can start a new instance.");
+        out.println("         */");
+        out.println("        public " + builderName + " reset() {");
+        if (classModel.immutable) {
+            for (FieldModel field : fields) {
+                out.println("            this." + field.name + " = " + defaultValue(field) + ";");
+            }
+        } else {
+            // Reuse the pending instance rather than dropping it
+            out.println("            " + className + " current = this.instance;");
+            out.println("            if (current != null) {");
+            for (FieldModel field : fields) {
+                out.println("                " + write(field, "current", defaultValue(field)));
+            }
+            out.println("            }");
+        }
+        out.println("            return this;");
+        out.println("        }");
+        
+        out.println();
+        out.println("        /**");
+        out.println("         * Returns the built " + className + ". The builder starts a new instance afterwards.");
+        out.println("         */");
+        out.println("        public " + className + " build() {");
+        if (classModel.immutable) {
+            out.println("            return new " + className + "(" + argumentList(fields) + ");");
+        } else {
+            out.println("            " + className + " built = instance();");
+            out.println("            this.instance = null;");
+            out.println("            return built;");
+        }
+        out.println("        }");
+        out.println("    }");
+    }
+
+    private void generateAccessors(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        String accessorsName = className + "Accessors";
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Index-based accessors for the fields of " + className + ", usable instead of reflection.");
         out.println("     */");
-        out.println("    public static " + className + " create(");
+        out.println("    public static final class " + accessorsName + " {");
+        for (int i = 0; i < fields.size(); i++) {
+            out.println("        public static final int " + constantName(fields.get(i).name) + " = " + i + ";");
+        }
+        out.println();
+        // Internal members are $-prefixed so no field constant can hide them
+        out.println("        private static final String[] $NAMES = {" + fields.stream()
+                .map(field -> "\"" + field.name + "\"")
+                .collect(Collectors.joining(", ")) + "};");
+        out.println("        private static final Class<?>[] $TYPES = {" + fields.stream()
+                .map(field -> field.erasure + ".class")
+                .collect(Collectors.joining(", ")) + "};");
+        out.println();
+        out.println("        private " + accessorsName + "() {");
+        out.println("        }");
         
-        // Constructor parameters
+        out.println();
+        out.println("        /**");
+        out.println("         * Returns the number of fields, which is one more than the highest index.");
+        out.println("         */");
+        out.println("        public static int fieldCount() {");
+        out.println("            return " + fields.size() + ";");
+        out.println("        }");
+        
+        out.println();
+        out.println("        /**");
+        out.println("         * Returns the index of the named field, or -1 if there is no such field.");
+        out.println("         */");
+        out.println("        public static int indexOf(String name) {");
+        out.println("            switch (name) {");
         for (int i = 0; i < fields.size(); i++) {
-            VariableElement field = fields.get(i);
-            TypeMirror fieldType = field.asType();
-            String fieldName = field.getSimpleName().toString();
-            
-            out.print("            " + fieldType + " " + fieldName);
-            if (i < fields.size() - 1) {
-                out.println(",");
+            out.println("                case \"" + fields.get(i).name + "\":");
+            out.println("                    return " + i + ";");
+        }
+        out.println("                default:");
+        out.println("                    return -1;");
+        out.println("            }");
+        out.println("        }");
+        
+        out.println();
+        out.println("        /**");
+        out.println("         * Returns the name of the field at the given index.");
+        out.println("         */");
+        out.println("        public static String nameOf(int index) {");
+        out.println("            return $NAMES[index];");
+        out.println("        }");
+        out.println();
+        out.println("        /**");
+        out.println("         * Returns the erased type of the field at the given index.");
+        out.println("         */");
+        out.println("        public static Class<?> typeOf(int index) {");
+        out.println("            return $TYPES[index];");
+        out.println("        }");
+        
+        out.println();
+        out.println("        /**");
+        out.println("         * Returns the value of the field at the given index, boxed if primitive.");
+        out.println("         */");
+        out.println("        public static Object get(" + className + " target, int index) {");
+        out.println("            switch (index) {");
+        for (int i = 0; i < fields.size(); i++) {
+            out.println("                case " + i + ":");
+            out.println("                    return " + read(fields.get(i), "target") + ";");
+        }
+        out.println("                default:");
+        out.println("                    throw new IndexOutOfBoundsException(\"No field at index \" + index);");
+        out.println("            }");
+        out.println("        }");
+        
+        out.println();
+        out.println("        /**");
+        out.println("         * Sets the field at the given index, unboxing primitive values.");
+        out.println("         */");
+        out.println("        @SuppressWarnings(\"unchecked\")");
+        out.println("        public static void set(" + className + " target, int index, Object value) {");
+        out.println("            switch (index) {");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            out.println("                case " + i + ":");
+            if (classModel.immutable) {
+                out.println("                    throw new UnsupportedOperationException(\"Field " + field.name + " is final\");");
             } else {
-                out.println(") {");
+                String castType = field.kind.isPrimitive() ? boxedType(field.kind) : field.erasure;
+                out.println("                    " + write(field, "target", "(" + castType + ") value"));
+                out.println("                    return;");
             }
         }
+        out.println("                default:");
+        out.println("                    throw new IndexOutOfBoundsException(\"No field at index \" + index);");
+        out.println("            }");
+        out.println("        }");
         
-        // Constructor body
-        out.println("        " + className + " instance = new " + className + "();");
-        for (VariableElement field : fields) {
-            String fieldName = field.getSimpleName().toString();
-            out.println("        instance." + fieldName + " = " + fieldName + ";");
+        // Primitive-specialized variants avoid boxing for numeric fields
+        generatePrimitiveAccessors(out, classModel, fields, "int", "Int",
+                EnumSet.of(TypeKind.INT, TypeKind.SHORT, TypeKind.BYTE, TypeKind.CHAR), EnumSet.of(TypeKind.INT));
+        generatePrimitiveAccessors(out, classModel, fields, "long", "Long",
+                EnumSet.of(TypeKind.LONG, TypeKind.INT, TypeKind.SHORT, TypeKind.BYTE, TypeKind.CHAR), EnumSet.of(TypeKind.LONG));
+        
+        out.println("    }");
+    }
+
+    private void generatePrimitiveAccessors(PrintWriter out, ClassModel classModel, List<FieldModel> fields,
+                                            String type, String suffix, Set<TypeKind> readable, Set<TypeKind> writable) {
+        out.println();
+        out.println("        /**");
+        out.println("         * Returns the " + type + " value of the field at the given index without boxing.");
+        out.println("         */");
+        out.println("        public static " + type + " get" + suffix + "(" + classModel.simpleName + " target, int index) {");
+        out.println("            switch (index) {");
+        for (int i = 0; i < fields.size(); i++) {
+            if (readable.contains(fields.get(i).kind)) {
+                out.println("                case " + i + ":");
+                out.println("                    return " + read(fields.get(i), "target") + ";");
+            }
+        }
+        out.println("                default:");
+        out.println("                    throw new IllegalArgumentException(\"No " + type + " field at index \" + index);");
+        out.println("            }");
+        out.println("        }");
+        
+        out.println();
+        out.println("        /**");
+        out.println("         * Sets the " + type + " field at the given index without boxing.");
+        out.println("         */");
+        out.println("        public static void set" + suffix + "(" + classModel.simpleName + " target, int index, " + type + " value) {");
+        out.println("            switch (index) {");
+        for (int i = 0; i < fields.size(); i++) {
+            if (writable.contains(fields.get(i).kind) && !classModel.immutable) {
+                out.println("                case " + i + ":");
+                out.println("                    " + write(fields.get(i), "target", "value"));
+                out.println("                    return;");
+            }
+        }
+        out.println("                default:");
+        out.println("                    throw new IllegalArgumentException(\"No writable " + type + " field at index \" + index);");
+        out.println("            }");
+        out.println("        }");
+    }
+
+    private void generateBinaryCodec(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        int fixedSize = 0;
+        for (FieldModel field : fields) {
+            // Strings carry a 4-byte length prefix
+            fixedSize += field.kind.isPrimitive() ? primitiveSize(field.kind) : 4;
+        }
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Returns the number of bytes writeTo writes for this " + className + " instance.");
+        out.println("     */");
+        out.println("    public int binarySize() {");
+        out.println("        int size = " + fixedSize + ";");
+        for (FieldModel field : fields) {
+            if (field.isString()) {
+                out.println("        if (" + read(field, "this") + " != null) {");
+                out.println("            size += io.github.netanelshriki.minilombok.runtime.Utf8.encodedLength(" + read(field, "this") + ");");
+                out.println("        }");
+            }
+        }
+        out.println("        return size;");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Writes the fields of this " + className + " instance at the buffer's position and advances");
+        out.println("     * the position past them. Strings are written as a UTF-8 byte count (-1 for null) followed");
+        out.println("     * by their bytes. Uses absolute puts only and does not allocate.");
+        out.println("     */");
+        out.println("    public void writeTo(java.nio.ByteBuffer buffer) {");
+        out.println("        int index = buffer.position();");
+        for (FieldModel field : fields) {
+            printFieldWrite(out, "        ", field);
+        }
+        out.println("        buffer.position(index);");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Reads a " + className + " instance written by writeTo at the buffer's position and");
+        out.println("     * advances the position past it.");
+        out.println("     */");
+        out.println("    public static " + className + " readFrom(java.nio.ByteBuffer buffer) {");
+        out.println("        int index = buffer.position();");
+        // Immutable classes collect values in locals and pass them to the constructor. The locals
+        // are $-prefixed so they never clash with index, buffer or the string length locals.
+        if (!classModel.immutable) {
+            out.println("        " + className + " instance = new " + className + "();");
+        }
+        for (FieldModel field : fields) {
+            printFieldRead(out, "        ", field, classModel.immutable
+                    ? value -> field.type + " $" + field.name + " = " + value + ";"
+                    : value -> write(field, "instance", value));
+        }
+        out.println("        buffer.position(index);");
+        if (classModel.immutable) {
+            out.println("        return new " + className + "(" + fields.stream()
+                    .map(field -> "$" + field.name)
+                    .collect(Collectors.joining(", ")) + ");");
+        } else {
+            out.println("        return instance;");
         }
-        out.println("        return instance;");
         out.println("    }");
     }
 
-    private void generateGetterMethod(PrintWriter out, VariableElement field) {
-        String fieldName = field.getSimpleName().toString();
-        TypeMirror fieldType = field.asType();
-        String capitalizedFieldName = capitalize(fieldName);
+    /**
+     * Renders writeJson, toJson and readJson. Each field's name, quotes, colon and separator are
+     * emitted as one string constant, and readJson dispatches on the field name with a switch.
+     */
+    private void generateJsonCodec(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        String writer = "io.github.netanelshriki.minilombok.runtime.JsonWriter";
+        String reader = "io.github.netanelshriki.minilombok.runtime.JsonReader";
         
-        // Use "is" prefix for boolean fields
-        String prefix = fieldType.getKind() == TypeKind.BOOLEAN ? "is" : "get";
+        out.println();
+        out.println("    /**");
+        out.println("     * Writes this " + className + " instance as a JSON object. Integers are written without");
+        out.println("     * boxing or temporary strings.");
+        out.println("     */");
+        out.println("    public void writeJson(Appendable out) throws java.io.IOException {");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            String value = read(field, "this");
+            // Field names are Java identifiers, so they never need escaping
+            out.println("        out.append(\"" + (i == 0 ? "{" : ",") + "\\\"" + field.name + "\\\":\");");
+            switch (field.kind) {
+                case BOOLEAN:
+                    out.println("        out.append(" + value + " ? \"true\" : \"false\");");
+                    break;
+                case BYTE:
+                case SHORT:
+                case INT:
+                    out.println("        " + writer + ".writeInt(out, " + value + ");");
+                    break;
+                case LONG:
+                    out.println("        " + writer + ".writeLong(out, " + value + ");");
+                    break;
+                case CHAR:
+                    out.println("        " + writer + ".writeChar(out, " + value + ");");
+                    break;
+                case FLOAT:
+                    out.println("        " + writer + ".writeFloat(out, " + value + ");");
+                    break;
+                case DOUBLE:
+                    out.println("        " + writer + ".writeDouble(out, " + value + ");");
+                    break;
+                default:
+                    if (field.isString()) {
+                        out.println("        " + writer + ".writeString(out, " + value + ");");
+                    } else if (field.isEnum()) {
+                        out.println("        " + writer + ".writeString(out, " + value + " == null ? null : " + value + ".name());");
+                    } else {
+                        out.println("        if (" + value + " == null) {");
+                        out.println("            out.append(\"null\");");
+                        out.println("        } else {");
+                        out.println("            " + value + ".writeJson(out);");
+                        out.println("        }");
+                    }
+            }
+        }
+        out.println("        out.append(" + (fields.isEmpty() ? "\"{}\"" : "'}'") + ");");
+        out.println("    }");
         
         out.println();
         out.println("    /**");
-        out.println("     * Gets the value of " + fieldName + ".");
+        out.println("     * Returns this " + className + " instance as a JSON string.");
         out.println("     */");
-        out.println("    public " + fieldType + " " + prefix + capitalizedFieldName + "() {");
-        out.println("        return this." + fieldName + ";");
+        out.println("    public String toJson() {");
+        out.println("        StringBuilder sb = new StringBuilder(" + estimateToStringLength(className, fields) + ");");
+        out.println("        try {");
+        out.println("            writeJson(sb);");
+        out.println("        } catch (java.io.IOException e) {");
+        out.println("            // StringBuilder never throws");
+        out.println("            throw new java.io.UncheckedIOException(e);");
+        out.println("        }");
+        out.println("        return sb.toString();");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Reads a " + className + " instance from a JSON object. Unknown fields are skipped and");
+        out.println("     * missing fields keep their default value.");
+        out.println("     */");
+        out.println("    public static " + className + " readJson(CharSequence json) {");
+        out.println("        " + reader + " reader = new " + reader + "(json);");
+        out.println("        " + className + " value = readJson(reader);");
+        out.println("        reader.endDocument();");
+        out.println("        return value;");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Reads a " + className + " instance, or null, as the next value of the reader.");
+        out.println("     */");
+        out.println("    public static " + className + " readJson(" + reader + " reader) {");
+        out.println("        if (reader.nextNull()) {");
+        out.println("            return null;");
+        out.println("        }");
+        // Immutable classes collect values in locals and pass them to the constructor. The locals
+        // are $-prefixed so they never clash with the reader parameter.
+        if (classModel.immutable) {
+            for (FieldModel field : fields) {
+                out.println("        " + field.type + " $" + field.name + " = " + defaultValue(field) + ";");
+            }
+        } else {
+            out.println("        " + className + " instance = new " + className + "();");
+        }
+        out.println("        reader.beginObject();");
+        out.println("        while (reader.hasNextField()) {");
+        out.println("            switch (reader.nextName()) {");
+        for (FieldModel field : fields) {
+            String value;
+            switch (field.kind) {
+                case BOOLEAN:
+                    value = "reader.nextBoolean()";
+                    break;
+                case BYTE:
+                case SHORT:
+                    String boxed = boxedType(field.kind);
+                    value = "(" + field.type + ") reader.nextInt(" + boxed + ".MIN_VALUE, " + boxed + ".MAX_VALUE)";
+                    break;
+                case INT:
+                    value = "reader.nextInt()";
+                    break;
+                case LONG:
+                    value = "reader.nextLong()";
+                    break;
+                case CHAR:
+                    value = "reader.nextChar()";
+                    break;
+                case FLOAT:
+                    value = "(float) reader.nextDouble()";
+                    break;
+                case DOUBLE:
+                    value = "reader.nextDouble()";
+                    break;
+                default:
+                    if (field.isString()) {
+                        value = "reader.nextString()";
+                    } else if (field.isEnum()) {
+                        value = "reader.nextEnum(" + field.erasure + ".class)";
+                    } else {
+                        value = field.erasure + ".readJson(reader)";
+                    }
+            }
+            out.println("                case \"" + field.name + "\":");
+            out.println("                    " + (classModel.immutable
+                    ? "$" + field.name + " = " + value + ";"
+                    : write(field, "instance", value)));
+            out.println("                    break;");
+        }
+        out.println("                default:");
+        out.println("                    reader.skipValue();");
+        out.println("            }");
+        out.println("        }");
+        if (classModel.immutable) {
+            out.println("        return new " + className + "(" + fields.stream()
+                    .map(field -> "$" + field.name)
+                    .collect(Collectors.joining(", ")) + ");");
+        } else {
+            out.println("        return instance;");
+        }
         out.println("    }");
     }
 
-    private void generateSetterMethod(PrintWriter out, VariableElement field) {
-        String fieldName = field.getSimpleName().toString();
-        TypeMirror fieldType = field.asType();
-        String capitalizedFieldName = capitalize(fieldName);
+    /**
+     * Prints the statements writing one field at {@code index} and advancing it.
+     */
+    private void printFieldWrite(PrintWriter out, String indent, FieldModel field) {
+        String value = read(field, "this");
+        if (field.isString()) {
+            out.println(indent + "if (" + value + " == null) {");
+            out.println(indent + "    buffer.putInt(index, -1);");
+            out.println(indent + "    index += 4;");
+            out.println(indent + "} else {");
+            out.println(indent + "    int end = io.github.netanelshriki.minilombok.runtime.Utf8.write(buffer, index + 4, " + value + ");");
+            out.println(indent + "    buffer.putInt(index, end - index - 4);");
+            out.println(indent + "    index = end;");
+            out.println(indent + "}");
+        } else {
+            out.println(indent + "buffer." + bufferPut(field.kind, "index", value) + ";");
+            out.println(indent + "index += " + primitiveSize(field.kind) + ";");
+        }
+    }
+
+    /**
+     * Prints the statements reading one field at {@code index} and advancing it. The value
+     * expression is turned into a statement by {@code store}.
+     */
+    private void printFieldRead(PrintWriter out, String indent, FieldModel field, UnaryOperator<String> store) {
+        if (field.isString()) {
+            String length = field.name + "Length";
+            out.println(indent + "int " + length + " = buffer.getInt(index);");
+            out.println(indent + "index += 4;");
+            out.println(indent + store.apply(length + " < 0 ? null" + System.lineSeparator() + indent
+                    + "        : io.github.netanelshriki.minilombok.runtime.Utf8.read(buffer, index, " + length + ")"));
+            out.println(indent + "index += Math.max(" + length + ", 0);");
+        } else {
+            out.println(indent + store.apply(bufferGet(field.kind, "index")));
+            out.println(indent + "index += " + primitiveSize(field.kind) + ";");
+        }
+    }
+
+    /**
+     * Renders the companion view class for a @FlyweightView class. Field offsets are fixed at
+     * compile time, and wrap() moves the view between records without allocating.
+     */
+    private String renderFlyweightView(ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        String viewName = className + "View";
+        StringWriter source = new StringWriter();
+        
+        try (PrintWriter out = new PrintWriter(source)) {
+            if (!classModel.packageName.isEmpty()) {
+                out.println("package " + classModel.packageName + ";");
+                out.println();
+            }
+            out.println("// Generated by MiniLombok");
+            out.println();
+            out.println("/**");
+            out.println(" * Flyweight view over " + className + " records stored back to back in a ByteBuffer,");
+            out.println(" * RECORD_SIZE bytes each, with fields in declaration order and no padding.");
+            out.println(" * One view can be moved across any number of records with wrap().");
+            out.println(" */");
+            out.println("public final class " + viewName + " {");
+            
+            int offset = 0;
+            for (FieldModel field : fields) {
+                out.println("    public static final int " + constantName(field.name) + "_OFFSET = " + offset + ";");
+                offset += primitiveSize(field.kind);
+            }
+            out.println("    public static final int RECORD_SIZE = " + offset + ";");
+            out.println();
+            out.println("    private java.nio.ByteBuffer buffer;");
+            out.println("    private int base;");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Returns the number of whole records between the start and the limit of the buffer.");
+            out.println("     */");
+            out.println("    public static int recordCount(java.nio.ByteBuffer buffer) {");
+            out.println("        return buffer.limit() / RECORD_SIZE;");
+            out.println("    }");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Points this view at the record with the given index and returns it.");
+            out.println("     */");
+            out.println("    public " + viewName + " wrap(java.nio.ByteBuffer buffer, int index) {");
+            out.println("        return wrapAt(buffer, index * RECORD_SIZE);");
+            out.println("    }");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Points this view at the record starting at the given byte offset and returns it.");
+            out.println("     */");
+            out.println("    public " + viewName + " wrapAt(java.nio.ByteBuffer buffer, int offset) {");
+            out.println("        this.buffer = buffer;");
+            out.println("        this.base = offset;");
+            out.println("        return this;");
+            out.println("    }");
+            
+            for (FieldModel field : fields) {
+                out.println();
+                out.println("    /**");
+                out.println("     * Gets the value of " + field.name + " in the current record.");
+                out.println("     */");
+                out.println("    public " + field.type + " " + getterName(field) + "() {");
+                out.println("        return " + bufferGet(field.kind, "base + " + constantName(field.name) + "_OFFSET") + ";");
+                out.println("    }");
+            }
+            
+            out.println("}");
+        }
+        return source.toString();
+    }
+
+    /**
+     * Renders the companion struct-of-arrays container for a @Columnar class.
+     */
+    private String renderColumns(ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        String columnsName = className + "Columns";
+        StringWriter source = new StringWriter();
+        
+        try (PrintWriter out = new PrintWriter(source)) {
+            if (!classModel.packageName.isEmpty()) {
+                out.println("package " + classModel.packageName + ";");
+                out.println();
+            }
+            out.println("// Generated by MiniLombok");
+            out.println();
+            out.println("/**");
+            out.println(" * Columnar container for " + className + " rows: one array per field instead of one");
+            out.println(" * object per row. Rows are addressed by index, and scans do not allocate.");
+            out.println(" */");
+            out.println("public final class " + columnsName + " {");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Receives rows during forEach and scan.");
+            out.println("     */");
+            out.println("    public interface RowVisitor {");
+            out.println("        void visit(" + columnsName + " columns, int index);");
+            out.println("    }");
+            
+            out.println();
+            out.println("    private int size;");
+            for (FieldModel field : fields) {
+                out.println("    private " + columnType(field) + "[] " + field.name + "Values;");
+            }
+            
+            out.println();
+            out.println("    public " + columnsName + "() {");
+            out.println("        this(16);");
+            out.println("    }");
+            out.println();
+            out.println("    public " + columnsName + "(int initialCapacity) {");
+            for (FieldModel field : fields) {
+                out.println("        this." + field.name + "Values = " + newColumn(field, "initialCapacity") + ";");
+            }
+            out.println("    }");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Returns the number of rows.");
+            out.println("     */");
+            out.println("    public int size() {");
+            out.println("        return size;");
+            out.println("    }");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Appends a row and returns its index.");
+            out.println("     */");
+            out.print("    public int add(");
+            printParameters(out, fields);
+            // Parameters are named after the fields, so a field named size would shadow the count
+            out.println("        ensureCapacity(this.size + 1);");
+            for (FieldModel field : fields) {
+                out.println("        this." + field.name + "Values[this.size] = " + field.name + ";");
+            }
+            out.println("        return this.size++;");
+            out.println("    }");
+            
+            // Rows can be copied from instances when every field has a getter
+            if (fields.stream().allMatch(field -> hasGetter(classModel, field))) {
+                out.println();
+                out.println("    /**");
+                out.println("     * Appends the fields of the given " + className + " as a row and returns its index.");
+                out.println("     */");
+                out.println("    public int add(" + className + " row) {");
+                out.println("        return add(" + fields.stream()
+                        .map(field -> "row." + getterName(field) + "()")
+                        .collect(Collectors.joining(", ")) + ");");
+                out.println("    }");
+            }
+            
+            for (FieldModel field : fields) {
+                boolean unchecked = !columnType(field).equals(field.type);
+                out.println();
+                out.println("    /**");
+                out.println("     * Gets the value of " + field.name + " in the given row.");
+                out.println("     */");
+                if (unchecked) {
+                    out.println("    @SuppressWarnings(\"unchecked\")");
+                }
+                out.println("    public " + field.type + " " + getterName(field) + "(int index) {");
+                out.println("        checkIndex(index);");
+                out.println("        return " + (unchecked ? "(" + field.type + ") " : "") + "this." + field.name + "Values[index];");
+                out.println("    }");
+                
+                out.println();
+                out.println("    /**");
+                out.println("     * Sets the value of " + field.name + " in the given row.");
+                out.println("     */");
+                out.println("    public void set" + capitalize(field.name) + "(int index, " + field.type + " value) {");
+                out.println("        checkIndex(index);");
+                out.println("        this." + field.name + "Values[index] = value;");
+                out.println("    }");
+                
+                out.println();
+                out.println("    /**");
+                out.println("     * Returns the backing array of " + field.name + ". Only the first size() entries are rows,");
+                out.println("     * and the array is replaced when the container grows.");
+                out.println("     */");
+                out.println("    public " + columnType(field) + "[] " + field.name + "Column() {");
+                out.println("        return this." + field.name + "Values;");
+                out.println("    }");
+            }
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Visits every row in index order.");
+            out.println("     */");
+            out.println("    public void forEach(RowVisitor visitor) {");
+            out.println("        for (int i = 0; i < size; i++) {");
+            out.println("            visitor.visit(this, i);");
+            out.println("        }");
+            out.println("    }");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Visits the rows from {@code from} (inclusive) to {@code to} (exclusive) in index order.");
+            out.println("     */");
+            out.println("    public void scan(int from, int to, RowVisitor visitor) {");
+            out.println("        if (from < 0 || to > size || from > to) {");
+            out.println("            throw new IndexOutOfBoundsException(\"Range [\" + from + \", \" + to + \") out of bounds for size \" + size);");
+            out.println("        }");
+            out.println("        for (int i = from; i < to; i++) {");
+            out.println("            visitor.visit(this, i);");
+            out.println("        }");
+            out.println("    }");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Removes all rows, keeping the allocated capacity.");
+            out.println("     */");
+            out.println("    public void clear() {");
+            for (FieldModel field : fields) {
+                if (!field.kind.isPrimitive()) {
+                    // Drop references so removed rows can be collected
+                    out.println("        java.util.Arrays.fill(this." + field.name + "Values, 0, size, null);");
+                }
+            }
+            out.println("        size = 0;");
+            out.println("    }");
+            
+            out.println();
+            out.println("    /**");
+            out.println("     * Makes room for at least the given number of rows.");
+            out.println("     */");
+            out.println("    public void ensureCapacity(int capacity) {");
+            String firstColumn = fields.isEmpty() ? null : "this." + fields.get(0).name + "Values";
+            if (firstColumn != null) {
+                out.println("        int length = " + firstColumn + ".length;");
+                out.println("        if (capacity <= length) {");
+                out.println("            return;");
+                out.println("        }");
+                out.println("        int newLength = Math.max(capacity, length + (length >> 1) + 1);");
+                for (FieldModel field : fields) {
+                    out.println("        this." + field.name + "Values = java.util.Arrays.copyOf(this." + field.name + "Values, newLength);");
+                }
+            }
+            out.println("    }");
+            
+            out.println();
+            out.println("    private void checkIndex(int index) {");
+            out.println("        if (index < 0 || index >= size) {");
+            out.println("            throw new IndexOutOfBoundsException(\"Index \" + index + \" out of bounds for size \" + size);");
+            out.println("        }");
+            out.println("    }");
+            
+            out.println("}");
+        }
+        return source.toString();
+    }
+
+    /**
+     * Returns the element type of the column array for a field: the field type itself, or its
+     * erasure for parameterized types, which cannot be array elements.
+     */
+    private String columnType(FieldModel field) {
+        return field.kind.isPrimitive() ? field.type : field.erasure;
+    }
+
+    /**
+     * Returns an expression creating a column array for the field with the given length.
+     */
+    private String newColumn(FieldModel field, String length) {
+        String elementType = columnType(field);
+        // For array fields the length goes before the element type's own dimensions
+        int dimensions = elementType.indexOf('[');
+        return dimensions < 0
+                ? "new " + elementType + "[" + length + "]"
+                : "new " + elementType.substring(0, dimensions) + "[" + length + "]" + elementType.substring(dimensions);
+    }
+
+    /**
+     * Tells whether the annotated class gets a getter for the field.
+     */
+    private boolean hasGetter(ClassModel classModel, FieldModel field) {
+        return classModel.methods.stream().anyMatch(method -> method.kind == MethodKind.GETTER
+                && method.fields.contains(field));
+    }
+
+    private void generateFootprint(PrintWriter out, ClassModel classModel, List<FieldModel> fields) {
+        String className = classModel.simpleName;
+        String footprints = "io.github.netanelshriki.minilombok.runtime.Footprints";
+        boolean compressed = classModel.footprintCompressedOops;
+        int alignment = classModel.footprintAlignment;
+        String layout = compressed + ", " + alignment;
+        String stringLayout = classModel.footprintCompactStrings + ", " + layout;
+        long shallowSize = shallowSize(classModel);
         
         out.println();
         out.println("    /**");
-        out.println("     * Sets the value of " + fieldName + ".");
+        out.println("     * Returns the estimated size in bytes of a " + className + " instance without the objects it");
+        out.println("     * refers to, for a 64-bit JVM " + (compressed ? "with" : "without") + " compressed oops and "
+                + alignment + "-byte object alignment.");
         out.println("     */");
-        out.println("    public void set" + capitalizedFieldName + "(" + fieldType + " " + fieldName + ") {");
-        out.println("        this." + fieldName + " = " + fieldName + ";");
+        out.println("    public static long shallowSizeEstimate() {");
+        out.println("        return " + shallowSize + "L;");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Returns the estimated size in bytes of this " + className + " instance together with its");
+        out.println("     * strings, arrays and nested @Footprint objects. Strings are counted "
+                + (classModel.footprintCompactStrings ? "as compact Latin-1 strings." : "with a char array, as on JDK 8."));
+        out.println("     */");
+        out.println("    public long retainedSizeEstimate() {");
+        out.println("        return retainedSizeEstimate(" + footprints + ".DEFAULT_DEPTH);");
+        out.println("    }");
+        
+        out.println();
+        out.println("    /**");
+        out.println("     * Returns the estimated size in bytes of this " + className + " instance together with its");
+        out.println("     * strings, arrays and the nested @Footprint objects at most maxDepth levels below it, so");
+        out.println("     * cycles end. Objects referenced more than once are counted every time.");
+        out.println("     */");
+        out.println("    public long retainedSizeEstimate(int maxDepth) {");
+        out.println("        long size = " + shallowSize + "L;");
+        for (FieldModel field : fields) {
+            String value = read(field, "this");
+            if (field.isString()) {
+                out.println("        size += " + footprints + ".stringSize(" + value + ", " + stringLayout + ");");
+            } else if (field.kind == TypeKind.ARRAY && field.erasure.equals("java.lang.String[]")) {
+                out.println("        size += " + footprints + ".stringsSize(" + value + ", " + stringLayout + ");");
+            } else if (field.kind == TypeKind.ARRAY) {
+                int elementSize = field.componentKind.isPrimitive() ? primitiveSize(field.componentKind) : compressed ? 4 : 8;
+                out.println("        if (" + value + " != null) {");
+                out.println("            size += " + footprints + ".arraySize(" + value + ".length, " + elementSize + ", " + layout + ");");
+                out.println("        }");
+            } else if (field.footprint) {
+                out.println("        if (maxDepth > 0 && " + value + " != null) {");
+                out.println("            size += " + value + ".retainedSizeEstimate(maxDepth - 1);");
+                out.println("        }");
+            }
+        }
+        out.println("        return size;");
         out.println("    }");
     }
 
-    private void generateToStringMethod(PrintWriter out, TypeElement classElement, List<VariableElement> fields) {
-        String className = classElement.getSimpleName().toString();
+    /**
+     * Computes the shallow size of an instance from the fields the class is rendered with,
+     * including packed words and fields backing generated methods. HotSpot lays fields out
+     * widest first and fills the gap after a 12-byte header with narrower fields, so only
+     * that gap and the final alignment add padding.
+     */
+    private long shallowSize(ClassModel classModel) {
+        boolean compressed = classModel.footprintCompressedOops;
+        int reference = compressed ? 4 : 8;
+        long header = compressed ? 12 : 16;
+        long wide = 8L * classModel.packedWords + (classModel.trackChanges ? 8 : 0);
+        long narrow = (classModel.cacheHashCode ? 4 : 0) + (classModel.poolCapacity > 0 ? 1 : 0);
+        for (FieldModel field : classModel.declaredFields) {
+            if (field.isStatic() || field.isPacked()) {
+                continue;
+            }
+            // Lazy fields are rendered as an Object holder
+            int size = field.kind.isPrimitive() && !field.lazy ? primitiveSize(field.kind) : reference;
+            if (size == 8) {
+                wide += size;
+            } else {
+                narrow += size;
+            }
+        }
+        long size = header + wide + narrow;
+        if (wide > 0 && header % 8 != 0) {
+            size += Math.max(0, 8 - header % 8 - narrow);
+        }
+        return (size + classModel.footprintAlignment - 1) & -classModel.footprintAlignment;
+    }
+
+    /**
+     * Returns the size in bytes of a primitive value in a ByteBuffer; booleans take one byte.
+     */
+    private int primitiveSize(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+            case BYTE:
+                return 1;
+            case SHORT:
+            case CHAR:
+                return 2;
+            case INT:
+            case FLOAT:
+                return 4;
+            case LONG:
+            case DOUBLE:
+                return 8;
+            default:
+                throw new IllegalArgumentException("Not a primitive type: " + kind);
+        }
+    }
+
+    /**
+     * Returns an absolute ByteBuffer put call for a primitive value.
+     */
+    private String bufferPut(TypeKind kind, String index, String value) {
+        switch (kind) {
+            case BOOLEAN:
+                return "put(" + index + ", (byte) (" + value + " ? 1 : 0))";
+            case BYTE:
+                return "put(" + index + ", " + value + ")";
+            default:
+                return "put" + capitalize(kind.name().toLowerCase()) + "(" + index + ", " + value + ")";
+        }
+    }
+
+    /**
+     * Returns an absolute ByteBuffer get expression for a primitive value.
+     */
+    private String bufferGet(TypeKind kind, String index) {
+        switch (kind) {
+            case BOOLEAN:
+                return "buffer.get(" + index + ") != 0";
+            case BYTE:
+                return "buffer.get(" + index + ")";
+            default:
+                return "buffer.get" + capitalize(kind.name().toLowerCase()) + "(" + index + ")";
+        }
+    }
+
+    /**
+     * Turns a camelCase field name into an UPPER_SNAKE_CASE constant name.
+     */
+    private String constantName(String fieldName) {
+        StringBuilder constant = new StringBuilder(fieldName.length() + 4);
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                constant.append('_');
+            }
+            constant.append(Character.toUpperCase(c));
+        }
+        return constant.toString();
+    }
+
+    private String boxedType(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return "Boolean";
+            case BYTE:
+                return "Byte";
+            case SHORT:
+                return "Short";
+            case CHAR:
+                return "Character";
+            case INT:
+                return "Integer";
+            case LONG:
+                return "Long";
+            case FLOAT:
+                return "Float";
+            case DOUBLE:
+                return "Double";
+            default:
+                throw new IllegalArgumentException("Not a primitive type: " + kind);
+        }
+    }
+
+    /**
+     * Returns the default value of the field's type, as a source literal.
+     */
+    private String defaultValue(FieldModel field) {
+        switch (field.kind) {
+            case BOOLEAN:
+                return "false";
+            case BYTE:
+                return "(byte) 0";
+            case SHORT:
+                return "(short) 0";
+            case CHAR:
+                return "(char) 0";
+            case INT:
+                return "0";
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "0F";
+            case DOUBLE:
+                return "0D";
+            default:
+                return "null";
+        }
+    }
+
+    private void generateCompareTo(PrintWriter out, ClassModel classModel) {
+        String className = classModel.simpleName;
+        List<ClassModel.SortKey> keys = classModel.sortKeys;
         
         out.println();
         out.println("    /**");
-        out.println("     * Returns a string representation of this " + className + " instance.");
+        out.println("     * Compares this " + className + " instance with another by " + keys.stream()
+                .map(key -> key.field.name + (key.descending ? " descending" : ""))
+                .collect(Collectors.joining(", ")) + ".");
         out.println("     */");
         out.println("    @Override");
-        out.println("    public String toString() {");
-        out.println("        StringBuilder sb = new StringBuilder(\"" + className + "{\");");
+        out.println("    public int compareTo(" + className + " other) {");
+        if (keys.isEmpty()) {
+            out.println("        return 0;");
+        } else {
+            out.println("        int result;");
+            for (int i = 0; i < keys.size() - 1; i++) {
+                out.println("        result = " + keyComparison(keys.get(i), "this", "other") + ";");
+                out.println("        if (result != 0) {");
+                out.println("            return result;");
+                out.println("        }");
+            }
+            out.println("        return " + keyComparison(keys.get(keys.size() - 1), "this", "other") + ";");
+        }
+        out.println("    }");
         
+        for (ClassModel.SortKey key : keys) {
+            out.println();
+            out.println("    /**");
+            out.println("     * Orders " + className + " instances by " + key.field.name
+                    + (key.descending ? " descending" : "") + " only.");
+            out.println("     */");
+            out.println("    public static final java.util.Comparator<" + className + "> BY_" + constantName(key.field.name)
+                    + " = (a, b) -> " + keyComparison(key, "a", "b") + ";");
+        }
+    }
+
+    /**
+     * Returns an int expression comparing one key of two instances. Primitives use the
+     * boxing-free static compare methods, references compareTo after an explicit null check.
+     * Descending keys swap the operands, so the result is never negated.
+     */
+    private String keyComparison(ClassModel.SortKey key, String left, String right) {
+        FieldModel field = key.field;
+        String first = read(field, key.descending ? right : left);
+        String second = read(field, key.descending ? left : right);
+        if (field.kind.isPrimitive()) {
+            return boxedType(field.kind) + ".compare(" + first + ", " + second + ")";
+        }
+        // Null placement does not depend on the direction
+        String a = read(field, left);
+        String b = read(field, right);
+        return a + " == " + b + " ? 0"
+                + " : " + a + " == null ? " + (key.nullsFirst ? "-1" : "1")
+                + " : " + b + " == null ? " + (key.nullsFirst ? "1" : "-1")
+                + " : " + first + ".compareTo(" + second + ")";
+    }
+
+    /**
+     * Returns an expression that is true when the two field values are equal, chosen by the
+     * field's type so primitives are never boxed.
+     */
+    private String fieldEquals(FieldModel field, String left, String right) {
+        switch (field.kind) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT:
+            case LONG:
+                return left + " == " + right;
+            case FLOAT:
+                return "Float.compare(" + left + ", " + right + ") == 0";
+            case DOUBLE:
+                return "Double.compare(" + left + ", " + right + ") == 0";
+            case ARRAY:
+                return field.componentKind == TypeKind.ARRAY
+                        ? "java.util.Arrays.deepEquals(" + left + ", " + right + ")"
+                        : "java.util.Arrays.equals(" + left + ", " + right + ")";
+            default:
+                return "java.util.Objects.equals(" + left + ", " + right + ")";
+        }
+    }
+
+    /**
+     * Returns an expression that is true when the two field values differ, chosen by the
+     * field's type so primitives are never boxed.
+     */
+    private String fieldDiffers(FieldModel field, String left, String right) {
+        switch (field.kind) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT:
+            case LONG:
+                return left + " != " + right;
+            case FLOAT:
+                return "Float.compare(" + left + ", " + right + ") != 0";
+            case DOUBLE:
+                return "Double.compare(" + left + ", " + right + ") != 0";
+            case ARRAY:
+                return field.componentKind == TypeKind.ARRAY
+                        ? "!java.util.Arrays.deepEquals(" + left + ", " + right + ")"
+                        : "!java.util.Arrays.equals(" + left + ", " + right + ")";
+            default:
+                return "!java.util.Objects.equals(" + left + ", " + right + ")";
+        }
+    }
+
+    /**
+     * Returns an int hash expression for the field value, chosen by the field's type so
+     * primitives are never boxed.
+     */
+    private String fieldHash(FieldModel field, String value) {
+        switch (field.kind) {
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT:
+                return value;
+            case BOOLEAN:
+                return "Boolean.hashCode(" + value + ")";
+            case LONG:
+                return "Long.hashCode(" + value + ")";
+            case FLOAT:
+                return "Float.hashCode(" + value + ")";
+            case DOUBLE:
+                return "Double.hashCode(" + value + ")";
+            case ARRAY:
+                return field.componentKind == TypeKind.ARRAY
+                        ? "java.util.Arrays.deepHashCode(" + value + ")"
+                        : "java.util.Arrays.hashCode(" + value + ")";
+            default:
+                return "(" + value + " == null ? 0 : " + value + ".hashCode())";
+        }
+    }
+
+    /**
+     * Estimates the length of the generated toString output, so the builder is sized once
+     * for typical values instead of growing several times.
+     */
+    private int estimateToStringLength(String className, List<FieldModel> fields) {
+        int length = className.length() + 2;
         for (int i = 0; i < fields.size(); i++) {
-            String fieldName = fields.get(i).getSimpleName().toString();
-            if (i > 0) {
-                out.println("        sb.append(\", \");");
+            FieldModel field = fields.get(i);
+            length += (i > 0 ? 2 : 0) + field.name.length() + 1;
+            switch (field.kind) {
+                case BOOLEAN:
+                    length += 5;
+                    break;
+                case BYTE:
+                    length += 4;
+                    break;
+                case SHORT:
+                    length += 6;
+                    break;
+                case CHAR:
+                    length += 1;
+                    break;
+                case INT:
+                    length += 11;
+                    break;
+                case LONG:
+                    length += 20;
+                    break;
+                case FLOAT:
+                    length += 15;
+                    break;
+                case DOUBLE:
+                    length += 24;
+                    break;
+                default:
+                    length += 16;
+                    break;
             }
-            out.println("        sb.append(\"" + fieldName + "=\").append(String.valueOf(this." + fieldName + "));");
         }
-        
-        out.println("        sb.append(\"}\");");
-        out.println("        return sb.toString();");
-        out.println("    }");
+        return length;
     }
 
     private String capitalize(String str) {
@@ -429,12 +3351,35 @@ public class MiniLombokProcessor extends AbstractProcessor {
     }
 
     // Utility classes to store generated methods
-    private enum MethodKind {
-        CONSTRUCTOR, GETTER, SETTER, TOSTRING
+    enum MethodKind {
+        CONSTRUCTOR, VALUE_CONSTRUCTOR, GETTER, SETTER, TOSTRING, EQUALS_HASHCODE, BUILDER, ACCESSORS,
+        BINARY_CODEC, FLYWEIGHT_VIEW(true), COLUMNAR(true), PACKED, ATOMIC, LAZY_GETTER, TRACK_CHANGES, POOLED, COMPARE_TO, JSON_CODEC,
+        FOOTPRINT;
+
+        // Generated into a companion class instead of the annotated class
+        final boolean companion;
+
+        MethodKind() {
+            this(false);
+        }
+
+        MethodKind(boolean companion) {
+            this.companion = companion;
+        }
     }
 
-    private static class GeneratedMethod {
+    static class GeneratedMethod {
         MethodKind kind;
-        List<VariableElement> fields;
+        List<FieldModel> fields;
+    }
+
+    private static final class RenderedFile {
+        final String qualifiedName;
+        final String source;
+
+        RenderedFile(String qualifiedName, String source) {
+            this.qualifiedName = qualifiedName;
+            this.source = source;
+        }
     }
 }
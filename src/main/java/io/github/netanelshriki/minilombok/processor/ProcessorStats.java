@@ -0,0 +1,161 @@
+package io.github.netanelshriki.minilombok.processor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-round and per-class counters collected when {@code minilombok.stats} is set.
+ */
+final class ProcessorStats {
+    final List<RoundStats> rounds = new ArrayList<>();
+
+    RoundStats startRound() {
+        RoundStats round = new RoundStats(rounds.size() + 1);
+        rounds.add(round);
+        return round;
+    }
+
+    /**
+     * Renders the collected counters as a JSON document.
+     */
+    String toJson() {
+        RoundStats totals = totals();
+        StringBuilder json = new StringBuilder(256 + rounds.size() * 512);
+        json.append("{\n  \"totals\": ");
+        totals.appendCounters(json, "    ");
+        json.append(",\n  \"rounds\": [");
+        for (int i = 0; i < rounds.size(); i++) {
+            json.append(i > 0 ? ",\n    " : "\n    ");
+            rounds.get(i).appendJson(json);
+        }
+        json.append(rounds.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * One-line summary for the compiler log.
+     */
+    String summary() {
+        RoundStats totals = totals();
+        long methods = 0;
+        for (long count : totals.methodsGenerated.values()) {
+            methods += count;
+        }
+        return String.format("MiniLombok: %d classes, %d methods, %d bytes in %d rounds "
+                        + "(discovery %.1f ms, processClass %.1f ms, generateClassFile %.1f ms)",
+                totals.classesProcessed, methods, totals.bytesWritten, rounds.size(),
+                totals.discoveryNanos / 1e6, totals.processClassNanos / 1e6,
+                totals.generateClassFileNanos / 1e6);
+    }
+
+    private RoundStats totals() {
+        RoundStats totals = new RoundStats(0);
+        for (RoundStats round : rounds) {
+            totals.elementsScanned += round.elementsScanned;
+            totals.classesProcessed += round.classesProcessed;
+            totals.bytesWritten += round.bytesWritten;
+            totals.discoveryNanos += round.discoveryNanos;
+            totals.processClassNanos += round.processClassNanos;
+            totals.generateClassFileNanos += round.generateClassFileNanos;
+            for (Map.Entry<MiniLombokProcessor.MethodKind, Long> entry : round.methodsGenerated.entrySet()) {
+                totals.methodsGenerated.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+        }
+        return totals;
+    }
+
+    static final class RoundStats {
+        final int number;
+        long elementsScanned;
+        long classesProcessed;
+        long bytesWritten;
+        long discoveryNanos;
+        long processClassNanos;
+        long generateClassFileNanos;
+        final Map<MiniLombokProcessor.MethodKind, Long> methodsGenerated =
+                new EnumMap<>(MiniLombokProcessor.MethodKind.class);
+        final List<ClassStats> classes = new ArrayList<>();
+
+        RoundStats(int number) {
+            this.number = number;
+        }
+
+        ClassStats startClass(ClassModel classModel) {
+            ClassStats classStats = new ClassStats(classModel.qualifiedName);
+            classes.add(classStats);
+            return classStats;
+        }
+
+        /**
+         * Adds a finished class to the round counters.
+         */
+        void record(ClassStats classStats) {
+            classesProcessed++;
+            bytesWritten += classStats.bytesWritten;
+            processClassNanos += classStats.processClassNanos;
+            for (Map.Entry<MiniLombokProcessor.MethodKind, Long> entry : classStats.methodsGenerated.entrySet()) {
+                methodsGenerated.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+        }
+
+        private void appendJson(StringBuilder json) {
+            json.append("{\"round\": ").append(number).append(", \"counters\": ");
+            appendCounters(json, "      ");
+            json.append(", \"classes\": [");
+            for (int i = 0; i < classes.size(); i++) {
+                json.append(i > 0 ? ",\n      " : "\n      ");
+                classes.get(i).appendJson(json);
+            }
+            json.append(classes.isEmpty() ? "]}" : "\n    ]}");
+        }
+
+        private void appendCounters(StringBuilder json, String indent) {
+            json.append("{\n").append(indent).append("\"elementsScanned\": ").append(elementsScanned)
+                    .append(",\n").append(indent).append("\"classesProcessed\": ").append(classesProcessed)
+                    .append(",\n").append(indent).append("\"methodsGenerated\": ");
+            appendMethodCounts(json, methodsGenerated);
+            json.append(",\n").append(indent).append("\"bytesWritten\": ").append(bytesWritten)
+                    .append(",\n").append(indent).append("\"discoveryNanos\": ").append(discoveryNanos)
+                    .append(",\n").append(indent).append("\"processClassNanos\": ").append(processClassNanos)
+                    .append(",\n").append(indent).append("\"generateClassFileNanos\": ").append(generateClassFileNanos)
+                    .append('\n').append(indent, 0, indent.length() - 2).append('}');
+        }
+    }
+
+    static final class ClassStats {
+        final String name;
+        long bytesWritten;
+        long processClassNanos;
+        long generateClassFileNanos;
+        final Map<MiniLombokProcessor.MethodKind, Long> methodsGenerated =
+                new EnumMap<>(MiniLombokProcessor.MethodKind.class);
+
+        ClassStats(String name) {
+            this.name = name;
+        }
+
+        private void appendJson(StringBuilder json) {
+            json.append("{\"name\": \"").append(name).append("\", \"methodsGenerated\": ");
+            appendMethodCounts(json, methodsGenerated);
+            json.append(", \"bytesWritten\": ").append(bytesWritten)
+                    .append(", \"processClassNanos\": ").append(processClassNanos)
+                    .append(", \"generateClassFileNanos\": ").append(generateClassFileNanos)
+                    .append('}');
+        }
+    }
+
+    private static void appendMethodCounts(StringBuilder json, Map<MiniLombokProcessor.MethodKind, Long> counts) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<MiniLombokProcessor.MethodKind, Long> entry : counts.entrySet()) {
+            if (!first) {
+                json.append(", ");
+            }
+            json.append('"').append(entry.getKey()).append("\": ").append(entry.getValue());
+            first = false;
+        }
+        json.append('}');
+    }
+}
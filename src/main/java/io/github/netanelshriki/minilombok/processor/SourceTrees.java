@@ -0,0 +1,97 @@
+package io.github.netanelshriki.minilombok.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads source text of elements through javac's tree API ({@code com.sun.source.util.Trees}).
+ *
+ * <p>The tree API is looked up reflectively, so the processor compiles against the Java SE API
+ * only ({@code --release 8}) and needs no {@code tools.jar} on its class path. It is only
+ * available when the processor gets javac's own {@link ProcessingEnvironment}. Build tools that
+ * hand processors a wrapping environment, such as Gradle's incremental compilation, do not
+ * expose it, and wrapped environments are deliberately not unwrapped.
+ */
+final class SourceTrees {
+
+    private final Object trees;
+    private final Method getTree;
+    private final Method getPath;
+    private final Method getInitializer;
+    private final Method getCompilationUnit;
+    private final Method getImports;
+
+    private SourceTrees(Object trees, ClassLoader loader) throws ReflectiveOperationException {
+        this.trees = trees;
+        Class<?> treesClass = Class.forName("com.sun.source.util.Trees", false, loader);
+        this.getTree = treesClass.getMethod("getTree", Element.class);
+        this.getPath = treesClass.getMethod("getPath", Element.class);
+        this.getInitializer = Class.forName("com.sun.source.tree.VariableTree", false, loader)
+                .getMethod("getInitializer");
+        this.getCompilationUnit = Class.forName("com.sun.source.util.TreePath", false, loader)
+                .getMethod("getCompilationUnit");
+        this.getImports = Class.forName("com.sun.source.tree.CompilationUnitTree", false, loader)
+                .getMethod("getImports");
+    }
+
+    /**
+     * Returns the tree API of the compiler that created the given environment, or null when it is
+     * not javac or the environment wraps javac's.
+     */
+    static SourceTrees create(ProcessingEnvironment processingEnv) {
+        ClassLoader loader = processingEnv.getClass().getClassLoader();
+        if (loader == null) {
+            loader = SourceTrees.class.getClassLoader();
+        }
+        try {
+            Method instance = Class.forName("com.sun.source.util.Trees", false, loader)
+                    .getMethod("instance", ProcessingEnvironment.class);
+            return new SourceTrees(instance.invoke(null, processingEnv), loader);
+        } catch (InvocationTargetException e) {
+            // Trees.instance throws IllegalArgumentException for environments that are not javac's
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the source of the initializer of a field, or null when it has none.
+     */
+    String initializer(Element field) {
+        try {
+            Object tree = getTree.invoke(trees, field);
+            if (tree == null || !getInitializer.getDeclaringClass().isInstance(tree)) {
+                return null;
+            }
+            Object initializer = getInitializer.invoke(tree);
+            return initializer == null ? null : initializer.toString();
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the import declarations of the compilation unit of a class, as source.
+     */
+    List<String> imports(TypeElement classElement) {
+        List<String> imports = new ArrayList<>();
+        try {
+            Object path = getPath.invoke(trees, classElement);
+            if (path != null) {
+                Object compilationUnit = getCompilationUnit.invoke(path);
+                for (Object anImport : (List<?>) getImports.invoke(compilationUnit)) {
+                    imports.add(anImport.toString().trim());
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            imports.clear();
+        }
+        return imports;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.netanelshriki.minilombok.runtime;
+
+/**
+ * Size estimates used by code generated for {@code @Footprint}, for a 64-bit HotSpot layout
+ * with or without compressed oops and compact strings.
+ */
+public final class Footprints {
+
+    /**
+     * How many levels of nested {@code @Footprint} objects {@code retainedSizeEstimate()} counts.
+     */
+    public static final int DEFAULT_DEPTH = 8;
+
+    private Footprints() {
+    }
+
+    /**
+     * Rounds a size up to the object alignment, which must be a power of two.
+     */
+    public static long align(long size, int alignment) {
+        return (size + alignment - 1) & -alignment;
+    }
+
+    /**
+     * Returns the size of an array with the given length and element size in bytes.
+     */
+    public static long arraySize(int length, int elementSize, boolean compressedOops, int alignment) {
+        // Header with length; without compressed class pointers the elements start 8-byte aligned
+        long base = compressedOops ? 16 : 24;
+        return align(base + (long) length * elementSize, alignment);
+    }
+
+    /**
+     * Returns the size of a string and its backing array, or 0 for null, from its length alone.
+     * Compact strings, the default since JDK 9, are counted with one byte per character as if
+     * they held only Latin-1 text; otherwise strings hold a char array, as on JDK 8.
+     */
+    public static long stringSize(String value, boolean compactStrings, boolean compressedOops, int alignment) {
+        if (value == null) {
+            return 0;
+        }
+        // Header, hash and the value reference, plus coder and hashIsZero in compact strings
+        long shell = align((compressedOops ? 12 + 4 + 4 : 16 + 4 + 8) + (compactStrings ? 2 : 0), alignment);
+        return shell + arraySize(value.length(), compactStrings ? 1 : 2, compressedOops, alignment);
+    }
+
+    /**
+     * Returns the size of a string array and the strings in it, or 0 for null.
+     */
+    public static long stringsSize(String[] values, boolean compactStrings, boolean compressedOops, int alignment) {
+        if (values == null) {
+            return 0;
+        }
+        long size = arraySize(values.length, compressedOops ? 4 : 8, compressedOops, alignment);
+        for (String value : values) {
+            size += stringSize(value, compactStrings, compressedOops, alignment);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.netanelshriki.minilombok.runtime;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * String deduplication used by code generated for {@code @Interned(strings = true)}.
+ * Unlike {@link String#intern()}, the table is a small fixed-size array shared by all
+ * interned classes, and a newer string replaces an older one that maps to the same slot.
+ */
+public final class Interning {
+
+    private static final int SLOTS = 4096;
+    private static final AtomicReferenceArray<String> STRINGS = new AtomicReferenceArray<>(SLOTS);
+
+    private Interning() {
+    }
+
+    /**
+     * Returns a previously seen string equal to the given one, or remembers and returns it.
+     */
+    public static String dedupe(String value) {
+        if (value == null) {
+            return null;
+        }
+        int hash = value.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+        String cached = STRINGS.get(slot);
+        if (value.equals(cached)) {
+            return cached;
+        }
+        // Racing writers may overwrite each other, which only costs a later cache miss
+        STRINGS.lazySet(slot, value);
+        return value;
+    }
+}
@@ -0,0 +1,311 @@
+package io.github.netanelshriki.minilombok.runtime;
+
+/**
+ * Streaming JSON reader used by code generated for {@code @JsonCodec}.
+ * Reads one value at a time from the input without building a tree. Not thread-safe.
+ */
+public final class JsonReader {
+
+    private final CharSequence input;
+    private int position;
+    // Whether a comma must come before the next field of the current object
+    private boolean afterField;
+    // Reused for strings that contain escapes
+    private final StringBuilder buffer = new StringBuilder();
+
+    public JsonReader(CharSequence input) {
+        this.input = input;
+    }
+
+    /**
+     * Consumes the opening brace of an object.
+     */
+    public void beginObject() {
+        expect('{');
+        afterField = false;
+    }
+
+    /**
+     * Returns true when the current object has another field, consuming the separating comma,
+     * or consumes the closing brace and returns false.
+     */
+    public boolean hasNextField() {
+        char c = peek();
+        if (c == '}') {
+            position++;
+            // The object just closed was a value of the enclosing object, if any
+            afterField = true;
+            return false;
+        }
+        if (afterField) {
+            expect(',');
+        }
+        afterField = true;
+        return true;
+    }
+
+    /**
+     * Reads a field name and the colon after it.
+     */
+    public String nextName() {
+        String name = nextString();
+        if (name == null) {
+            throw error("Expected a field name");
+        }
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Consumes a {@code null} literal and returns true, or returns false if the next value
+     * is not null.
+     */
+    public boolean nextNull() {
+        if (peek() == 'n') {
+            literal("null");
+            return true;
+        }
+        return false;
+    }
+
+    public String nextString() {
+        if (nextNull()) {
+            return null;
+        }
+        expect('"');
+        int start = position;
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c == '"') {
+                return input.subSequence(start, position++).toString();
+            }
+            if (c == '\\') {
+                buffer.setLength(0);
+                buffer.append(input, start, position);
+                return escapedString();
+            }
+            position++;
+        }
+        throw error("Unterminated string");
+    }
+
+    private String escapedString() {
+        while (position < input.length()) {
+            char c = input.charAt(position++);
+            if (c == '"') {
+                return buffer.toString();
+            }
+            if (c != '\\') {
+                buffer.append(c);
+                continue;
+            }
+            if (position >= input.length()) {
+                break;
+            }
+            char escape = input.charAt(position++);
+            switch (escape) {
+                case 'b':
+                    buffer.append('\b');
+                    break;
+                case 'f':
+                    buffer.append('\f');
+                    break;
+                case 'n':
+                    buffer.append('\n');
+                    break;
+                case 'r':
+                    buffer.append('\r');
+                    break;
+                case 't':
+                    buffer.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > input.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(input.charAt(position++), 16);
+                        if (digit < 0) {
+                            throw error("Invalid unicode escape");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    buffer.append((char) code);
+                    break;
+                default:
+                    // \" \\ and \/
+                    buffer.append(escape);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    /**
+     * Reads a string of exactly one character.
+     */
+    public char nextChar() {
+        String value = nextString();
+        if (value == null || value.length() != 1) {
+            throw error("Expected a single character");
+        }
+        return value.charAt(0);
+    }
+
+    /**
+     * Reads an enum constant written as its name, or null.
+     */
+    public <E extends Enum<E>> E nextEnum(Class<E> type) {
+        String name = nextString();
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    public boolean nextBoolean() {
+        if (peek() == 't') {
+            literal("true");
+            return true;
+        }
+        literal("false");
+        return false;
+    }
+
+    public int nextInt() {
+        return nextInt(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads an integer that must lie between {@code min} and {@code max}, for byte and short fields.
+     */
+    public int nextInt(int min, int max) {
+        long value = nextLong();
+        if (value < min || value > max) {
+            throw error("Number out of range [" + min + ", " + max + "]");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads an integer without allocating.
+     */
+    public long nextLong() {
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+        int start = position;
+        long value = 0;
+        while (position < input.length()) {
+            int digit = input.charAt(position) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            // Accumulate negatively so that Long.MIN_VALUE fits
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw error("Number out of long range");
+            }
+            value = value * 10 - digit;
+            position++;
+        }
+        if (position == start) {
+            throw error("Expected a number");
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw error("Number out of long range");
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    public double nextDouble() {
+        int start = peekPosition();
+        while (position < input.length() && "+-0123456789.eE".indexOf(input.charAt(position)) >= 0) {
+            position++;
+        }
+        if (position == start) {
+            throw error("Expected a number");
+        }
+        return Double.parseDouble(input.subSequence(start, position).toString());
+    }
+
+    /**
+     * Skips the next value, including nested objects and arrays. Used for unknown fields.
+     */
+    public void skipValue() {
+        char c = peek();
+        if (c == '"') {
+            nextString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = input.charAt(position++);
+                if (c == '"') {
+                    position--;
+                    nextString();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0 && position < input.length());
+            if (depth > 0) {
+                throw error("Unterminated value");
+            }
+        } else if (c == 't' || c == 'f') {
+            nextBoolean();
+        } else if (!nextNull()) {
+            nextDouble();
+        }
+    }
+
+    /**
+     * Fails unless only whitespace is left.
+     */
+    public void endDocument() {
+        if (peekPosition() < input.length()) {
+            throw error("Unexpected trailing content");
+        }
+    }
+
+    private char peek() {
+        peekPosition();
+        if (position >= input.length()) {
+            throw error("Unexpected end of input");
+        }
+        return input.charAt(position);
+    }
+
+    // Skips whitespace and returns the position of the next character
+    private int peekPosition() {
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private void literal(String literal) {
+        peekPosition();
+        for (int i = 0; i < literal.length(); i++) {
+            if (position >= input.length() || input.charAt(position) != literal.charAt(i)) {
+                throw error("Expected " + literal);
+            }
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.netanelshriki.minilombok.runtime;
+
+import java.io.IOException;
+
+/**
+ * JSON output helpers used by code generated for {@code @JsonCodec}.
+ * Integers are written digit by digit, so writing them never allocates.
+ */
+public final class JsonWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private JsonWriter() {
+    }
+
+    /**
+     * Writes a quoted, escaped JSON string, or {@code null}.
+     */
+    public static void writeString(Appendable out, CharSequence value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        int start = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            // Copy the run of plain characters before the escape in one call
+            out.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+        out.append(value, start, value.length());
+        out.append('"');
+    }
+
+    /**
+     * Writes a single character as a JSON string.
+     */
+    public static void writeChar(Appendable out, char value) throws IOException {
+        if (value >= 0x20 && value != '"' && value != '\\') {
+            out.append('"').append(value).append('"');
+        } else {
+            writeString(out, String.valueOf(value));
+        }
+    }
+
+    public static void writeInt(Appendable out, int value) throws IOException {
+        writeLong(out, value);
+    }
+
+    public static void writeLong(Appendable out, long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.append("-9223372036854775808");
+                return;
+            }
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * Writes a finite double. JSON has no NaN or infinity, so those are rejected.
+     */
+    public static void writeDouble(Appendable out, double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON cannot represent " + value);
+        }
+        out.append(Double.toString(value));
+    }
+
+    /**
+     * Writes a finite float. JSON has no NaN or infinity, so those are rejected.
+     */
+    public static void writeFloat(Appendable out, float value) throws IOException {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON cannot represent " + value);
+        }
+        out.append(Float.toString(value));
+    }
+}
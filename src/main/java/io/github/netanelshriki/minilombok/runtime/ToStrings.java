@@ -0,0 +1,246 @@
+package io.github.netanelshriki.minilombok.runtime;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Per-thread guard used by {@code appendTo} methods generated for a {@code @ToString} with
+ * limits. It keeps a stack of the objects and containers being appended on this thread, so
+ * cycles are printed as {@code <cycle>}, nesting past the depth limit as <code>{...}</code>,
+ * and output past the length budget is cut and ended with {@code ...}.
+ *
+ * <p>Nested generated objects inherit the limits of the outermost one, even when they are
+ * appended through {@code toString()} into a builder of their own. The stack is reused, so
+ * appending does not allocate beyond what the builder itself needs.
+ */
+public final class ToStrings {
+
+    private static final ThreadLocal<ToStrings> STATE = ThreadLocal.withInitial(ToStrings::new);
+
+    // One frame per object or container being appended, innermost last
+    private Object[] objects = new Object[8];
+    private StringBuilder[] builders = new StringBuilder[8];
+    // Builder length at which output of the frame stops
+    private int[] limits = new int[8];
+    // Deepest frame index allowed for a nested object below the frame
+    private int[] depthLimits = new int[8];
+    // Frame that started writing into the builder of the frame
+    private int[] owners = new int[8];
+    // Whether output of an owning frame was cut short
+    private boolean[] cut = new boolean[8];
+    private int depth;
+
+    private ToStrings() {
+    }
+
+    /**
+     * Starts appending the given object, with {@code -1} meaning no limit. Returns null when it
+     * must not be appended because it is already being appended on this thread, it is nested
+     * too deep, or the budget is spent; a marker is appended instead where that applies.
+     * Otherwise {@link #exit} must be called once the object is done.
+     */
+    public static ToStrings enter(Object self, StringBuilder sb, int maxLength, int maxDepth) {
+        ToStrings state = STATE.get();
+        return state.push(self, sb, maxLength, maxDepth, false) ? state : null;
+    }
+
+    /**
+     * Returns true when the length budget is spent, so nothing more should be appended.
+     */
+    public boolean full(StringBuilder sb) {
+        int top = depth - 1;
+        if (sb.length() < limits[top]) {
+            return false;
+        }
+        cut[owners[top]] = true;
+        return true;
+    }
+
+    /**
+     * Appends a field value: containers and arrays up to {@code maxElements} elements each
+     * ({@code -1} for all of them), anything else through its string form, within the budget.
+     */
+    public void append(StringBuilder sb, Object value, int maxElements) {
+        if (value == null) {
+            appendBounded(sb, "null");
+        } else if (value instanceof CharSequence) {
+            appendBounded(sb, (CharSequence) value);
+        } else if (value instanceof Collection || value instanceof Map || value.getClass().isArray()) {
+            if (!push(value, sb, -1, -1, true)) {
+                return;
+            }
+            try {
+                if (value instanceof Collection) {
+                    appendCollection(sb, (Collection<?>) value, maxElements);
+                } else if (value instanceof Map) {
+                    appendMap(sb, (Map<?, ?>) value, maxElements);
+                } else {
+                    appendArray(sb, value, maxElements);
+                }
+            } finally {
+                exit(sb);
+            }
+        } else {
+            appendBounded(sb, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Finishes appending the innermost object, cutting the output to the budget if needed.
+     */
+    public void exit(StringBuilder sb) {
+        int top = --depth;
+        objects[top] = null;
+        builders[top] = null;
+        if (owners[top] == top && (cut[top] || sb.length() > limits[top])) {
+            sb.setLength(Math.min(sb.length(), limits[top]));
+            sb.append("...");
+        }
+    }
+
+    private boolean push(Object self, StringBuilder sb, int maxLength, int maxDepth, boolean container) {
+        int length = sb.length();
+        int limit = maxLength < 0 || maxLength > Integer.MAX_VALUE - length ? Integer.MAX_VALUE : length + maxLength;
+        int depthLimit = maxDepth < 0 || maxDepth > Integer.MAX_VALUE - depth ? Integer.MAX_VALUE : depth + maxDepth;
+        int owner = depth;
+        if (depth > 0) {
+            int top = depth - 1;
+            for (int i = 0; i < depth; i++) {
+                if (objects[i] == self) {
+                    appendBounded(sb, "<cycle>");
+                    return false;
+                }
+            }
+            if (container) {
+                // Elements of a container sit at the same depth as the container itself
+                depthLimit = depthLimits[top] == Integer.MAX_VALUE ? Integer.MAX_VALUE : depthLimits[top] + 1;
+            } else if (depth > depthLimits[top]) {
+                appendBounded(sb, "{...}");
+                return false;
+            } else {
+                depthLimit = Math.min(depthLimit, depthLimits[top]);
+            }
+            if (builders[top] == sb) {
+                owner = owners[top];
+                limit = Math.min(limit, limits[top]);
+            } else {
+                // A nested toString() builder gets what is left of the enclosing budget
+                int remaining = Math.max(0, limits[top] - builders[top].length());
+                limit = Math.min(limit, remaining > Integer.MAX_VALUE - length ? Integer.MAX_VALUE : length + remaining);
+            }
+            if (length >= limit) {
+                cut[owner == depth ? owners[top] : owner] = true;
+                return false;
+            }
+        }
+        if (depth == objects.length) {
+            int capacity = depth * 2;
+            objects = Arrays.copyOf(objects, capacity);
+            builders = Arrays.copyOf(builders, capacity);
+            limits = Arrays.copyOf(limits, capacity);
+            depthLimits = Arrays.copyOf(depthLimits, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            cut = Arrays.copyOf(cut, capacity);
+        }
+        objects[depth] = self;
+        builders[depth] = sb;
+        limits[depth] = limit;
+        depthLimits[depth] = depthLimit;
+        owners[depth] = owner;
+        cut[depth] = false;
+        depth++;
+        return true;
+    }
+
+    private void appendBounded(StringBuilder sb, CharSequence text) {
+        int top = depth - 1;
+        if (top < 0) {
+            sb.append(text);
+            return;
+        }
+        int room = limits[top] - sb.length();
+        if (text.length() <= room) {
+            sb.append(text);
+        } else {
+            if (room > 0) {
+                sb.append(text, 0, room);
+            }
+            cut[owners[top]] = true;
+        }
+    }
+
+    private void appendCollection(StringBuilder sb, Collection<?> collection, int maxElements) {
+        sb.append('[');
+        int index = 0;
+        for (Object element : collection) {
+            if (!separate(sb, index, collection.size(), maxElements)) {
+                break;
+            }
+            append(sb, element, maxElements);
+            index++;
+        }
+        sb.append(']');
+    }
+
+    private void appendMap(StringBuilder sb, Map<?, ?> map, int maxElements) {
+        sb.append('{');
+        int index = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!separate(sb, index, map.size(), maxElements)) {
+                break;
+            }
+            append(sb, entry.getKey(), maxElements);
+            sb.append('=');
+            append(sb, entry.getValue(), maxElements);
+            index++;
+        }
+        sb.append('}');
+    }
+
+    private void appendArray(StringBuilder sb, Object array, int maxElements) {
+        int length = java.lang.reflect.Array.getLength(array);
+        sb.append('[');
+        for (int i = 0; i < length; i++) {
+            if (!separate(sb, i, length, maxElements)) {
+                break;
+            }
+            // Primitive elements are appended without boxing
+            if (array instanceof Object[]) {
+                append(sb, ((Object[]) array)[i], maxElements);
+            } else if (array instanceof int[]) {
+                sb.append(((int[]) array)[i]);
+            } else if (array instanceof long[]) {
+                sb.append(((long[]) array)[i]);
+            } else if (array instanceof double[]) {
+                sb.append(((double[]) array)[i]);
+            } else if (array instanceof byte[]) {
+                sb.append(((byte[]) array)[i]);
+            } else if (array instanceof char[]) {
+                sb.append(((char[]) array)[i]);
+            } else if (array instanceof boolean[]) {
+                sb.append(((boolean[]) array)[i]);
+            } else if (array instanceof float[]) {
+                sb.append(((float[]) array)[i]);
+            } else {
+                sb.append(((short[]) array)[i]);
+            }
+        }
+        sb.append(']');
+    }
+
+    /**
+     * Appends the separator before the element at the given index, or the count of the
+     * remaining elements. Returns false when no more elements should be appended.
+     */
+    private boolean separate(StringBuilder sb, int index, int size, int maxElements) {
+        if (index > 0) {
+            sb.append(", ");
+        }
+        if (index == maxElements) {
+            sb.append("... (").append(size - index).append(" more)");
+            return false;
+        }
+        return !full(sb);
+    }
+}
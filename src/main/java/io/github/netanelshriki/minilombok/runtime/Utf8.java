@@ -0,0 +1,80 @@
+package io.github.netanelshriki.minilombok.runtime;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * UTF-8 helpers used by code generated for {@code @BinaryCodec}.
+ * All methods work on absolute buffer indexes, and encoding never allocates.
+ */
+public final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * Returns the number of bytes {@link #write} produces for the given characters.
+     */
+    public static int encodedLength(CharSequence chars) {
+        int length = 0;
+        for (int i = 0, n = chars.length(); i < n; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are replaced with '?', like String.getBytes does
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes the characters starting at {@code index} and returns the index after the last byte.
+     */
+    public static int write(ByteBuffer buffer, int index, CharSequence chars) {
+        for (int i = 0, n = chars.length(); i < n; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                buffer.put(index++, (byte) c);
+            } else if (c < 0x800) {
+                buffer.put(index++, (byte) (0xC0 | (c >> 6)));
+                buffer.put(index++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                buffer.put(index++, (byte) (0xF0 | (codePoint >> 18)));
+                buffer.put(index++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put(index++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put(index++, (byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put(index++, (byte) '?');
+            } else {
+                buffer.put(index++, (byte) (0xE0 | (c >> 12)));
+                buffer.put(index++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put(index++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Decodes {@code length} bytes starting at {@code index}.
+     */
+    public static String read(ByteBuffer buffer, int index, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + index, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(index + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,291 @@
+package io.github.netanelshriki.minilombok.test;
+
+import com.google.common.io.ByteStreams;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * Compiles annotated classes the way a build sees them and loads the result, so tests can call
+ * the members MiniLombok generates into the annotated classes themselves.
+ *
+ * <p>javac cannot compile an annotated class and its regenerated source in one compilation, so
+ * the processor runs through {@link WrappedProcessor}, with javac's tree API as in a plain javac
+ * build, and the regenerated sources are compiled on their own and loaded in a class loader of
+ * their own. Generated members are reached through
+ * reflection by name.
+ */
+final class GeneratedCode {
+
+    // Test models are kept as resources so the test source set itself compiles without them
+    private static final String MODEL_PACKAGE = "io.github.netanelshriki.minilombok.test";
+
+    private final ClassLoader loader;
+
+    private GeneratedCode(ClassLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Compiles the test models with the given simple names, found under {@code src/test/resources}.
+     */
+    static GeneratedCode compile(String... models) {
+        JavaFileObject[] sources = new JavaFileObject[models.length];
+        for (int i = 0; i < models.length; i++) {
+            sources[i] = JavaFileObjects.forResource(MODEL_PACKAGE.replace('.', '/') + "/" + models[i] + ".java");
+        }
+        return compile(sources);
+    }
+
+    /**
+     * Runs the processor on the given sources, then compiles and loads what it generated, together
+     * with the sources it did not regenerate.
+     */
+    static GeneratedCode compile(JavaFileObject... sources) {
+        WrappedProcessor processor = new WrappedProcessor(true);
+        assertThat(javac().withProcessors(processor).compile(sources)).succeeded();
+
+        List<JavaFileObject> generated = new ArrayList<>();
+        processor.sources.forEach((name, source) -> generated.add(JavaFileObjects.forSourceString(name, source)));
+        for (JavaFileObject source : sources) {
+            // Sources from strings have relative URIs such as sample/Point.java
+            String path = "/" + source.toUri().getPath();
+            if (processor.sources.keySet().stream().noneMatch(name -> path.endsWith("/" + name.replace('.', '/') + ".java"))) {
+                generated.add(source);
+            }
+        }
+        Compilation compilation = javac().compile(generated);
+        assertThat(compilation).succeeded();
+
+        Map<String, byte[]> classes = new HashMap<>();
+        for (JavaFileObject file : compilation.generatedFiles()) {
+            if (file.getKind() != JavaFileObject.Kind.CLASS) {
+                continue;
+            }
+            // Class files are named /CLASS_OUTPUT/<binary name with slashes>.class
+            String path = file.toUri().getPath();
+            String binaryName = path.substring(path.indexOf('/', 1) + 1, path.length() - ".class".length())
+                    .replace('/', '.');
+            try (InputStream in = file.openInputStream()) {
+                classes.put(binaryName, ByteStreams.toByteArray(in));
+            } catch (IOException e) {
+                throw new AssertionError("Could not read " + path, e);
+            }
+        }
+        return new GeneratedCode(new GeneratedClassLoader(classes));
+    }
+
+    /**
+     * Returns a loaded class. Names without a package are test models, and nested classes are
+     * named with {@code $}.
+     */
+    Class<?> type(String name) {
+        try {
+            return Class.forName(name.indexOf('.') < 0 ? MODEL_PACKAGE + "." + name : name, true, loader);
+        } catch (ClassNotFoundException e) {
+            throw new AssertionError("No generated class " + name, e);
+        }
+    }
+
+    /**
+     * Calls the constructor of a class that accepts the given arguments.
+     */
+    Object construct(String type, Object... args) {
+        Constructor<?> constructor = (Constructor<?>) resolve(type(type).getDeclaredConstructors(), "<init>", args);
+        try {
+            return constructor.newInstance(args);
+        } catch (InvocationTargetException e) {
+            throw rethrow(e);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Calls the static method of a class that accepts the given arguments.
+     */
+    Object invokeStatic(String type, String method, Object... args) {
+        return call(type(type), null, method, args);
+    }
+
+    /**
+     * Reads a static field of a class.
+     */
+    Object constant(String type, String field) {
+        return read(type(type), null, field);
+    }
+
+    /**
+     * Returns an instance of a generated interface whose calls go to the given handler.
+     */
+    Object implement(String type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(loader, new Class<?>[] {type(type)}, handler);
+    }
+
+    /**
+     * Calls the instance method of an object that accepts the given arguments.
+     */
+    static Object invoke(Object target, String method, Object... args) {
+        return call(target.getClass(), target, method, args);
+    }
+
+    /**
+     * Reads an instance field of an object.
+     */
+    static Object get(Object target, String field) {
+        return read(target.getClass(), target, field);
+    }
+
+    /**
+     * Writes an instance field of an object.
+     */
+    static void set(Object target, String field, Object value) {
+        try {
+            Field declared = target.getClass().getDeclaredField(field);
+            declared.setAccessible(true);
+            declared.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Object call(Class<?> type, Object target, String name, Object[] args) {
+        List<Executable> candidates = new ArrayList<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                candidates.add(method);
+            }
+        }
+        Method method = (Method) resolve(candidates.toArray(new Executable[0]), name, args);
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw rethrow(e);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Object read(Class<?> type, Object target, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(target);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Picks the only method or constructor with the given name whose parameters accept the
+     * arguments, with primitive parameters taking their boxed values.
+     */
+    private static Executable resolve(Executable[] candidates, String name, Object[] args) {
+        Executable found = null;
+        for (Executable candidate : candidates) {
+            String candidateName = candidate instanceof Constructor ? "<init>" : candidate.getName();
+            if (!candidateName.equals(name) || candidate.isSynthetic() || !accepts(candidate.getParameterTypes(), args)) {
+                continue;
+            }
+            if (found != null) {
+                if (Arrays.equals(found.getParameterTypes(), candidate.getParameterTypes())) {
+                    // Overridden in a subclass, which was seen first
+                    continue;
+                }
+                throw new AssertionError("Ambiguous call to " + name + " with " + args.length + " arguments");
+            }
+            found = candidate;
+        }
+        if (found == null) {
+            throw new AssertionError("No " + name + " accepting " + args.length + " arguments");
+        }
+        found.setAccessible(true);
+        return found;
+    }
+
+    private static boolean accepts(Class<?>[] parameters, Object[] args) {
+        if (parameters.length != args.length) {
+            return false;
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            Class<?> parameter = parameters[i];
+            if (args[i] == null ? parameter.isPrimitive() : !boxed(parameter).isInstance(args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == char.class) {
+            return Character.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else {
+            return Short.class;
+        }
+    }
+
+    private static RuntimeException rethrow(InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new AssertionError(cause);
+    }
+
+    /**
+     * Defines compiled classes from memory, next to the processor runtime they depend on.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        GeneratedClassLoader(Map<String, byte[]> classes) {
+            super(GeneratedCode.class.getClassLoader());
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
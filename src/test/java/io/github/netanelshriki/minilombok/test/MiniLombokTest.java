@@ -1,6 +1,30 @@
 package io.github.netanelshriki.minilombok.test;
 
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.netanelshriki.minilombok.processor.MiniLombokProcessor;
+import io.github.netanelshriki.minilombok.runtime.JsonReader;
 import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static io.github.netanelshriki.minilombok.test.GeneratedCode.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -11,53 +35,901 @@ public class MiniLombokTest {
     @Test
     public void testAllArgsConstructor() {
         // Create an instance using the generated constructor
-        TestModel model = TestModel.create("John Doe", 30, true);
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        Object model = code.invokeStatic("TestModel", "create", "John Doe", 30, true);
         
-        assertEquals("John Doe", model.getName());
-        assertEquals(30, model.getAge());
-        assertTrue(model.isActive());
+        assertEquals("John Doe", invoke(model, "getName"));
+        assertEquals(30, invoke(model, "getAge"));
+        assertEquals(true, invoke(model, "isActive"));
     }
     
     @Test
     public void testGetters() {
         // Create a model and set fields directly
-        TestModel model = new TestModel();
-        model.name = "Jane Doe";
-        model.age = 25;
-        model.active = false;
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        Object model = code.construct("TestModel");
+        set(model, "name", "Jane Doe");
+        set(model, "age", 25);
+        set(model, "active", false);
         
         // Use getters to verify values
-        assertEquals("Jane Doe", model.getName());
-        assertEquals(25, model.getAge());
-        assertFalse(model.isActive());
+        assertEquals("Jane Doe", invoke(model, "getName"));
+        assertEquals(25, invoke(model, "getAge"));
+        assertEquals(false, invoke(model, "isActive"));
     }
     
     @Test
     public void testSetters() {
         // Create a model
-        TestModel model = new TestModel();
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        Object model = code.construct("TestModel");
         
         // Use setters to set values
-        model.setName("Alice");
-        model.setAge(28);
-        model.setActive(true);
+        invoke(model, "setName", "Alice");
+        invoke(model, "setAge", 28);
+        invoke(model, "setActive", true);
         
         // Verify values directly
-        assertEquals("Alice", model.name);
-        assertEquals(28, model.age);
-        assertTrue(model.active);
+        assertEquals("Alice", get(model, "name"));
+        assertEquals(28, get(model, "age"));
+        assertEquals(true, get(model, "active"));
     }
     
     @Test
     public void testToString() {
         // Create a model
-        TestModel model = new TestModel();
-        model.name = "Bob";
-        model.age = 35;
-        model.active = true;
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        Object model = code.construct("TestModel");
+        set(model, "name", "Bob");
+        set(model, "age", 35);
+        set(model, "active", true);
         
         // Verify toString output
         String expected = "TestModel{name=Bob, age=35, active=true}";
         assertEquals(expected, model.toString());
     }
+    
+    @Test
+    public void testAppendTo() {
+        // Create a model
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        Object model = code.invokeStatic("TestModel", "create", "Bob", 35, true);
+        
+        // Append into an existing buffer
+        StringBuilder sb = new StringBuilder("model: ");
+        assertSame(sb, invoke(model, "appendTo", sb));
+        assertEquals("model: TestModel{name=Bob, age=35, active=true}", sb.toString());
+    }
+    
+    @Test
+    public void testEqualsAndHashCode() {
+        // Create equal and different models
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        Object model = code.invokeStatic("TestModel", "create", "Bob", 35, true);
+        Object same = code.invokeStatic("TestModel", "create", "Bob", 35, true);
+        Object different = code.invokeStatic("TestModel", "create", "Bob", 36, true);
+        
+        assertEquals(model, same);
+        assertEquals(model.hashCode(), same.hashCode());
+        assertNotEquals(model, different);
+        assertNotEquals(model, null);
+    }
+    
+    @Test
+    public void testValue() throws NoSuchFieldException {
+        // Create immutable models through the constructor and the static factory
+        GeneratedCode code = GeneratedCode.compile("TestValueModel");
+        Object model = code.construct("TestValueModel", "EUR", 100L);
+        Object same = code.invokeStatic("TestValueModel", "of", "EUR", 100L);
+        
+        assertEquals("EUR", invoke(model, "getCode"));
+        assertEquals(100L, invoke(model, "getAmount"));
+        assertEquals(model, same);
+        assertEquals(model.hashCode(), same.hashCode());
+        assertEquals("TestValueModel{code=EUR, amount=100}", model.toString());
+        
+        // Fields are final, and there are no setters
+        assertTrue(Modifier.isFinal(code.type("TestValueModel").getDeclaredField("code").getModifiers()));
+        assertThrows(AssertionError.class, () -> invoke(model, "setCode", "USD"));
+    }
+    
+    @Test
+    public void testBuilder() {
+        // Build two models with the same builder
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        Object builder = code.invokeStatic("TestModel", "builder");
+        Object first = invoke(invoke(invoke(invoke(builder, "name", "Alice"), "age", 28), "active", true), "build");
+        Object second = invoke(invoke(builder, "name", "Bob"), "build");
+        
+        assertEquals(code.invokeStatic("TestModel", "create", "Alice", 28, true), first);
+        assertEquals(code.invokeStatic("TestModel", "create", "Bob", 0, false), second);
+        assertNotSame(first, second);
+        
+        // The thread-local builder is reset before it is handed out
+        invoke(code.invokeStatic("TestModel", "localBuilder"), "name", "Carol");
+        assertEquals(code.invokeStatic("TestModel", "create", null, 41, false),
+                invoke(invoke(code.invokeStatic("TestModel", "localBuilder"), "age", 41), "build"));
+    }
+    
+    @Test
+    public void testIntrospect() {
+        // Read and write fields through the accessor table
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        String accessors = "TestModel$TestModelAccessors";
+        Object model = code.invokeStatic("TestModel", "create", "Dave", 40, false);
+        int age = (int) code.invokeStatic(accessors, "indexOf", "age");
+        
+        assertEquals(code.constant(accessors, "AGE"), age);
+        assertEquals(3, code.invokeStatic(accessors, "fieldCount"));
+        assertEquals(-1, code.invokeStatic(accessors, "indexOf", "missing"));
+        assertEquals(int.class, code.invokeStatic(accessors, "typeOf", age));
+        assertEquals(40, code.invokeStatic(accessors, "getInt", model, age));
+        
+        code.invokeStatic(accessors, "setInt", model, age, 41);
+        code.invokeStatic(accessors, "set", model, code.constant(accessors, "NAME"), "Eve");
+        assertEquals(41, invoke(model, "getAge"));
+        assertEquals("Eve", code.invokeStatic(accessors, "get", model, code.constant(accessors, "NAME")));
+    }
+    
+    @Test
+    public void testIntrospectFieldNames() {
+        // Field constants must not hide the members of the accessor table
+        GeneratedCode code = GeneratedCode.compile(JavaFileObjects.forSourceLines("sample.Schema",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "",
+                "@Introspect",
+                "public class Schema {",
+                "    private String names;",
+                "    private long types;",
+                "    private int fieldCount;",
+                "}"));
+        String accessors = "sample.Schema$SchemaAccessors";
+        
+        assertEquals(0, code.constant(accessors, "NAMES"));
+        assertEquals(1, code.constant(accessors, "TYPES"));
+        assertEquals(2, code.constant(accessors, "FIELD_COUNT"));
+        assertEquals(3, code.invokeStatic(accessors, "fieldCount"));
+        assertEquals("types", code.invokeStatic(accessors, "nameOf", 1));
+        assertEquals(int.class, code.invokeStatic(accessors, "typeOf", 2));
+    }
+    
+    @Test
+    public void testIntrospectRejectsDuplicateConstants() {
+        Compilation compilation = javac().withProcessors(new WrappedProcessor()).compile(JavaFileObjects.forSourceLines(
+                "sample.Row",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "",
+                "@Introspect",
+                "public class Row {",
+                "    private int userId;",
+                "    private int user_id;",
+                "}"));
+        
+        assertThat(compilation).hadErrorContaining("user_id and userId are both named USER_ID");
+    }
+    
+    @Test
+    public void testBinaryCodec() {
+        // Round-trip through heap and direct buffers
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        Object model = code.invokeStatic("TestModel", "create", "Zo\u00eb", 22, true);
+        for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(64), ByteBuffer.allocateDirect(64)}) {
+            invoke(model, "writeTo", buffer);
+            assertEquals(invoke(model, "binarySize"), buffer.position());
+            
+            buffer.flip();
+            assertEquals(model, code.invokeStatic("TestModel", "readFrom", buffer));
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+    
+    @Test
+    public void testFlyweightView() {
+        // Write records back to back with the binary codec
+        GeneratedCode code = GeneratedCode.compile("TestRecord");
+        int recordSize = (int) code.constant("TestRecordView", "RECORD_SIZE");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(3 * recordSize);
+        for (int i = 0; i < 3; i++) {
+            invoke(code.invokeStatic("TestRecord", "create", (long) i, i * 10, i % 2 == 0), "writeTo", buffer);
+        }
+        buffer.flip();
+        
+        // Read them through a single view
+        Object view = code.construct("TestRecordView");
+        assertEquals(3, code.invokeStatic("TestRecordView", "recordCount", buffer));
+        assertEquals(20, invoke(invoke(view, "wrap", buffer, 2), "getQuantity"));
+        assertEquals(1L, invoke(invoke(view, "wrap", buffer, 1), "getId"));
+        assertEquals(false, invoke(view, "isActive"));
+    }
+    
+    @Test
+    public void testFlyweightViewRejectsEmptyRecords() {
+        // Static and lazy fields take no room in a record either
+        Compilation compilation = javac().withProcessors(new WrappedProcessor()).compile(JavaFileObjects.forSourceLines(
+                "sample.Marker",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "",
+                "@FlyweightView",
+                "public class Marker {",
+                "    private static int instances;",
+                "}"));
+        
+        assertThat(compilation).hadErrorContaining("@FlyweightView needs at least one instance field");
+    }
+    
+    @Test
+    public void testColumnar() {
+        // Append rows past the initial capacity
+        GeneratedCode code = GeneratedCode.compile("TestModel");
+        Object columns = code.construct("TestModelColumns", 2);
+        invoke(columns, "add", "Ann", 30, true);
+        invoke(columns, "add", code.invokeStatic("TestModel", "create", "Ben", 40, false));
+        int last = (int) invoke(columns, "add", "Cid", 50, true);
+        
+        assertEquals(3, invoke(columns, "size"));
+        assertEquals("Ben", invoke(columns, "getName", 1));
+        assertEquals(50, invoke(columns, "getAge", last));
+        
+        invoke(columns, "setAge", 0, 31);
+        int[] total = new int[1];
+        Object visitor = code.implement("TestModelColumns$RowVisitor", (proxy, method, args) -> {
+            total[0] += (int) invoke(args[0], "getAge", args[1]);
+            return null;
+        });
+        invoke(columns, "scan", 0, 2, visitor);
+        assertEquals(71, total[0]);
+        
+        invoke(columns, "clear");
+        assertEquals(0, invoke(columns, "size"));
+        assertThrows(IndexOutOfBoundsException.class, () -> invoke(columns, "getName", 0));
+    }
+
+    @Test
+    public void testPacked() {
+        GeneratedCode code = GeneratedCode.compile("TestPackedModel");
+        Object model = code.invokeStatic("TestPackedModel", "create", "job", true, false, TimeUnit.SECONDS, 1023);
+        
+        assertEquals(true, invoke(model, "isEnabled"));
+        assertEquals(false, invoke(model, "isVisible"));
+        assertEquals(TimeUnit.SECONDS, invoke(model, "getUnit"));
+        assertEquals(1023, invoke(model, "getRetries"));
+        assertEquals("TestPackedModel{name=job, enabled=true, visible=false, unit=SECONDS, retries=1023}", model.toString());
+        
+        // Neighbouring fields in the word are left untouched
+        invoke(model, "setUnit", (Object) null);
+        invoke(model, "setVisible", true);
+        assertNull(invoke(model, "getUnit"));
+        assertEquals(true, invoke(model, "isEnabled"));
+        assertEquals(1023, invoke(model, "getRetries"));
+        assertEquals(code.invokeStatic("TestPackedModel", "create", "job", true, true, null, 1023), model);
+        
+        assertThrows(IllegalArgumentException.class, () -> invoke(model, "setRetries", 1024));
+        assertThrows(IllegalArgumentException.class, () -> invoke(model, "setRetries", -1));
+    }
+
+    @Test
+    public void testAtomic() throws InterruptedException {
+        GeneratedCode code = GeneratedCode.compile("TestCounter");
+        Object counter = code.construct("TestCounter");
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    invoke(counter, "incrementHits");
+                    invoke(counter, "getAndAddBytes", 10L);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(4000, invoke(counter, "getHits"));
+        assertEquals(40000L, invoke(counter, "getBytes"));
+        
+        assertEquals(true, invoke(counter, "compareAndSetState", null, "open"));
+        assertEquals(false, invoke(counter, "compareAndSetState", null, "closed"));
+        assertEquals("open", invoke(counter, "getAndSetState", "closed"));
+        invoke(counter, "lazySetHits", 0);
+        assertEquals(0, invoke(counter, "getHits"));
+    }
+
+    @Test
+    public void testLazyGetter() {
+        GeneratedCode code = GeneratedCode.compile("TestLazyModel");
+        Object model = code.invokeStatic("TestLazyModel", "create", " Mixed Case ");
+        
+        Object normalized = invoke(model, "getNormalized");
+        assertEquals("mixed case", normalized);
+        assertSame(normalized, invoke(model, "getNormalized"));
+        assertNull(invoke(model, "getMissing"));
+        assertNull(invoke(model, "getMissing"));
+        assertEquals(12, invoke(model, "getLength"));
+        
+        // Lazy fields are derived, so they stay out of toString
+        assertEquals("TestLazyModel{text= Mixed Case }", model.toString());
+    }
+
+    @Test
+    public void testTrackChanges() {
+        GeneratedCode code = GeneratedCode.compile("TestTrackedModel");
+        Object model = code.invokeStatic("TestTrackedModel", "create", "Ann", 30, 10.0);
+        assertEquals(0L, invoke(model, "dirtyMask"));
+        
+        // Setting an equal value does not mark the field
+        invoke(model, "setName", "Ann");
+        invoke(model, "setBalance", 12.5);
+        assertEquals(0b100L, invoke(model, "dirtyMask"));
+        
+        StringBuilder changes = new StringBuilder();
+        Object visitor = code.implement("TestTrackedModel$TestTrackedModelChangeVisitor", (proxy, method, args) -> {
+            changes.append(method.getName()).append('=').append(args[0]);
+            return null;
+        });
+        invoke(model, "visitChanges", visitor);
+        assertEquals("balance=12.5", changes.toString());
+        
+        // Only the changed field travels in the delta
+        ByteBuffer buffer = ByteBuffer.allocate((int) invoke(model, "deltaSize"));
+        invoke(model, "writeDeltaTo", buffer);
+        assertEquals(16, buffer.position());
+        buffer.flip();
+        Object replica = code.invokeStatic("TestTrackedModel", "create", "Ann", 30, 10.0);
+        invoke(replica, "readDelta", buffer);
+        assertEquals(12.5, invoke(replica, "getBalance"));
+        assertEquals(0L, invoke(replica, "dirtyMask"));
+        
+        invoke(model, "clearDirty");
+        assertEquals(0L, invoke(model, "dirtyMask"));
+    }
+
+    @Test
+    public void testPooled() {
+        GeneratedCode code = GeneratedCode.compile("TestPooledMessage");
+        String type = "TestPooledMessage";
+        long hits = (long) code.invokeStatic(type, "poolHits");
+        long overflows = (long) code.invokeStatic(type, "poolOverflows");
+        
+        Object message = code.invokeStatic(type, "acquire", "orders", 42L);
+        assertEquals("orders", invoke(message, "getTopic"));
+        invoke(message, "release");
+        
+        // The released instance comes back reset
+        Object reused = code.invokeStatic(type, "acquire");
+        assertSame(message, reused);
+        assertNull(invoke(reused, "getTopic"));
+        assertEquals(0L, invoke(reused, "getTimestamp"));
+        assertEquals(hits + 1, code.invokeStatic(type, "poolHits"));
+        
+        // Releases past the capacity are dropped
+        invoke(reused, "release");
+        invoke(code.invokeStatic(type, "acquire"), "release");
+        code.invokeStatic(type, "acquire", "a", 1L);
+        invoke(code.invokeStatic(type, "create", "b", 2L), "release");
+        invoke(code.invokeStatic(type, "create", "c", 3L), "release");
+        invoke(code.invokeStatic(type, "create", "d", 4L), "release");
+        assertEquals(overflows + 1, code.invokeStatic(type, "poolOverflows"));
+        
+        // A second release would put the instance in the pool twice
+        Object released = code.invokeStatic(type, "acquire", "e", 5L);
+        invoke(released, "release");
+        assertThrows(IllegalStateException.class, () -> invoke(released, "release"));
+        assertSame(released, code.invokeStatic(type, "acquire"));
+        invoke(released, "release");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOrdered() {
+        GeneratedCode code = GeneratedCode.compile("TestRankedModel");
+        Object low = code.invokeStatic("TestRankedModel", "create", "Ann", 10L);
+        Object high = code.invokeStatic("TestRankedModel", "create", "Ben", 90L);
+        Object unnamed = code.invokeStatic("TestRankedModel", "create", null, 90L);
+        List<Object> ranking = new ArrayList<>(Arrays.asList(low, unnamed, high));
+        
+        ranking.sort(null);
+        assertEquals(Arrays.asList(high, unnamed, low), ranking);
+        assertEquals(0, invoke(high, "compareTo", code.invokeStatic("TestRankedModel", "create", "Ben", 90L)));
+        
+        ranking.sort((Comparator<Object>) code.constant("TestRankedModel", "BY_NAME"));
+        assertEquals(Arrays.asList(low, high, unnamed), ranking);
+        assertTrue(((Comparator<Object>) code.constant("TestRankedModel", "BY_SCORE")).compare(high, low) < 0);
+    }
+
+    @Test
+    public void testJsonCodec() {
+        GeneratedCode code = GeneratedCode.compile("TestJsonModel");
+        Object model = code.invokeStatic("TestJsonModel", "create", "say \"hi\"", -42, Long.MAX_VALUE, true, 0.5, TimeUnit.SECONDS);
+        String json = (String) invoke(model, "toJson");
+        assertEquals("{\"name\":\"say \\\"hi\\\"\",\"count\":-42,\"total\":9223372036854775807,"
+                + "\"enabled\":true,\"ratio\":0.5,\"unit\":\"SECONDS\"}", json);
+        
+        Object copy = code.invokeStatic("TestJsonModel", "readJson", json);
+        assertEquals("say \"hi\"", invoke(copy, "getName"));
+        assertEquals(-42, invoke(copy, "getCount"));
+        assertEquals(Long.MAX_VALUE, invoke(copy, "getTotal"));
+        assertEquals(true, invoke(copy, "isEnabled"));
+        assertEquals(TimeUnit.SECONDS, invoke(copy, "getUnit"));
+        
+        // Unknown fields are skipped and missing ones keep their defaults
+        Object partial = code.invokeStatic("TestJsonModel", "readJson", "{ \"extra\": [1, {\"a\": null}], \"count\": 7, \"unit\": null }");
+        assertNull(invoke(partial, "getName"));
+        assertEquals(7, invoke(partial, "getCount"));
+        assertNull(invoke(partial, "getUnit"));
+        
+        assertThrows(IllegalArgumentException.class, () -> code.invokeStatic("TestJsonModel", "readJson", "{\"count\": 1"));
+    }
+    
+    @Test
+    public void testInterned() {
+        GeneratedCode code = GeneratedCode.compile("TestInternedModel");
+        Object first = code.invokeStatic("TestInternedModel", "of", "EUR", 100L);
+        Object second = code.invokeStatic("TestInternedModel", "of", new String("EUR"), 100L);
+        assertSame(first, second);
+        assertNotSame(first, code.invokeStatic("TestInternedModel", "of", "EUR", 101L));
+        
+        // Constructors bypass the intern table but still compare equal
+        Object constructed = code.construct("TestInternedModel", "EUR", 100L);
+        assertNotSame(first, constructed);
+        assertEquals(first, constructed);
+        assertEquals(first.hashCode(), constructed.hashCode());
+    }
+    
+    @Test
+    public void testInternedFieldNames() {
+        // Fields named like the locals of the interning factories must not clash with them
+        GeneratedCode code = GeneratedCode.compile(
+                JavaFileObjects.forSourceLines("sample.Bucket",
+                        "package sample;",
+                        "",
+                        "import io.github.netanelshriki.minilombok.annotations.*;",
+                        "",
+                        "@Value(staticConstructor = \"of\")",
+                        "@EqualsAndHashCode(cacheHashCode = true)",
+                        "@Interned(capacity = 16)",
+                        "public class Bucket {",
+                        "    private int hash;",
+                        "    private long slot;",
+                        "    private String cached;",
+                        "}"),
+                JavaFileObjects.forSourceLines("sample.Cell",
+                        "package sample;",
+                        "",
+                        "import io.github.netanelshriki.minilombok.annotations.*;",
+                        "",
+                        "@AllArgsConstructor",
+                        "@EqualsAndHashCode",
+                        "@Interned(capacity = 16)",
+                        "public class Cell {",
+                        "    private int hash;",
+                        "    private long slot;",
+                        "    private String cached;",
+                        "}"));
+        for (String type : Arrays.asList("sample.Bucket", "sample.Cell")) {
+            String factory = type.equals("sample.Bucket") ? "of" : "create";
+            Object first = code.invokeStatic(type, factory, 7, 3L, "x");
+            assertSame(first, code.invokeStatic(type, factory, 7, 3L, new String("x")));
+            assertNotSame(first, code.invokeStatic(type, factory, 7, 4L, "x"));
+            assertEquals(7, get(first, "hash"));
+            assertEquals(3L, get(first, "slot"));
+            assertEquals("x", get(first, "cached"));
+        }
+    }
+    
+    @Test
+    public void testBoundedToString() {
+        GeneratedCode code = GeneratedCode.compile("TestTreeNode");
+        Object root = code.construct("TestTreeNode");
+        invoke(root, "setName", "root");
+        Object child = code.construct("TestTreeNode");
+        invoke(child, "setName", "child");
+        invoke(child, "setParent", root);
+        invoke(root, "setChildren", new ArrayList<>(Arrays.asList(child, 1, 2, 3, 4)));
+        
+        // The cycle back to root is cut, and only the first three children are shown
+        assertEquals("TestTreeNode{name=root, parent=null, children=[TestTreeNode{name=child, parent=<cycle>, "
+                + "children=null}, 1, 2, ... (2 more)]}", root.toString());
+        
+        Object grandchild = code.construct("TestTreeNode");
+        invoke(grandchild, "setName", "grandchild");
+        invoke(grandchild, "setParent", child);
+        assertEquals("TestTreeNode{name=grandchild, parent=TestTreeNode{name=child, parent={...}, children=null}, "
+                + "children=null}", grandchild.toString());
+        
+        char[] longName = new char[1000];
+        Arrays.fill(longName, 'x');
+        invoke(root, "setName", new String(longName));
+        String text = root.toString();
+        assertEquals(163, text.length());
+        assertTrue(text.endsWith("xxx..."));
+    }
+    
+    @Test
+    public void testFootprint() {
+        // 12-byte header, the long, and three compressed references
+        GeneratedCode code = GeneratedCode.compile("TestCacheEntry");
+        assertEquals(32L, code.invokeStatic("TestCacheEntry", "shallowSizeEstimate"));
+        
+        Object empty = code.invokeStatic("TestCacheEntry", "create", null, 1L, null, null);
+        assertEquals(32L, invoke(empty, "retainedSizeEstimate"));
+        
+        // The key takes a 24-byte String and a 32-byte Latin-1 array, the payload 120 bytes
+        Object entry = code.invokeStatic("TestCacheEntry", "create", "user:12345", 2L, new byte[100], empty);
+        assertEquals(32L + 24 + 32 + 120 + 32, invoke(entry, "retainedSizeEstimate"));
+        assertEquals(32L + 24 + 32 + 120, invoke(entry, "retainedSizeEstimate", 0));
+    }
+    
+    @Test
+    public void testFootprintStringLayout() {
+        // Strings are sized from their length, compact by default or as a char array for JDK 8
+        GeneratedCode code = GeneratedCode.compile(
+                JavaFileObjects.forSourceLines("sample.Tag",
+                        "package sample;",
+                        "",
+                        "import io.github.netanelshriki.minilombok.annotations.*;",
+                        "",
+                        "@Footprint",
+                        "@AllArgsConstructor",
+                        "public class Tag {",
+                        "    private String text;",
+                        "}"),
+                JavaFileObjects.forSourceLines("sample.LegacyTag",
+                        "package sample;",
+                        "",
+                        "import io.github.netanelshriki.minilombok.annotations.*;",
+                        "",
+                        "@Footprint(compactStrings = false)",
+                        "@AllArgsConstructor",
+                        "public class LegacyTag {",
+                        "    private String text;",
+                        "}"));
+        
+        // A 16-byte instance and a 24-byte String, with a 32-byte byte[10] or a 40-byte char[10]
+        assertEquals(16L + 24 + 32, invoke(code.invokeStatic("sample.Tag", "create", "user:12345"), "retainedSizeEstimate"));
+        assertEquals(16L + 24 + 40, invoke(code.invokeStatic("sample.LegacyTag", "create", "user:12345"), "retainedSizeEstimate"));
+        // Characters outside Latin-1 are not looked at
+        assertEquals(16L + 24 + 32, invoke(code.invokeStatic("sample.Tag", "create", "\u20ac:12345678"), "retainedSizeEstimate"));
+    }
+    
+    @Test
+    public void testLazyGetterFieldNames() {
+        // Initializers reading fields named like the locals of the getter must see the fields
+        GeneratedCode code = GeneratedCode.compile(JavaFileObjects.forSourceLines(
+                "sample.Label",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "",
+                "@AllArgsConstructor",
+                "public class Label {",
+                "    private String value;",
+                "    private int computed;",
+                "    @Getter(lazy = true)",
+                "    private final String text = \"v=\" + value + \", c=\" + computed;",
+                "}"));
+        
+        Object label = code.invokeStatic("sample.Label", "create", "hello", 3);
+        assertEquals("v=hello, c=3", invoke(label, "getText"));
+    }
+    
+    @Test
+    public void testLazyGetterThroughWrappedEnvironment() {
+        // Gradle wraps javac's environment and hides the tree API, which must be reported clearly
+        Compilation compilation = javac().withProcessors(new WrappedProcessor()).compile(JavaFileObjects.forSourceLines(
+                "sample.Totals",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "import java.util.Locale;",
+                "",
+                "public class Totals {",
+                "    private String text;",
+                "    @Getter(lazy = true)",
+                "    private final String normalized = text.toLowerCase(Locale.ROOT);",
+                "}"));
+        
+        assertThat(compilation).hadErrorContaining("@Getter(lazy = true) needs javac's tree API");
+        assertThat(compilation).hadErrorContaining("Gradle's incremental compilation");
+    }
+    
+    @Test
+    public void testCachedHashCodeRejectsMutators() {
+        // A cached hash code would go stale once a generated mutator changes a field
+        for (String mutator : Arrays.asList("@Setter", "@Introspect", "@Atomic")) {
+            boolean onField = mutator.equals("@Atomic");
+            Compilation compilation = javac().withProcessors(new WrappedProcessor()).compile(JavaFileObjects.forSourceLines(
+                    "sample.Key",
+                    "package sample;",
+                    "",
+                    "import io.github.netanelshriki.minilombok.annotations.*;",
+                    "",
+                    onField ? "" : mutator,
+                    "@EqualsAndHashCode(cacheHashCode = true)",
+                    "public class Key {",
+                    "    private String a;",
+                    "    " + (onField ? mutator + " " : "") + "private int b;",
+                    "}"));
+            
+            assertThat(compilation).hadErrorContaining("cannot be combined with the mutators generated for " + mutator);
+        }
+    }
+    
+    @Test
+    public void testInternedRejectsMutators() {
+        // Every holder of an interned instance would see the change
+        for (String mutator : Arrays.asList("@Setter", "@Introspect", "@Atomic")) {
+            boolean onField = mutator.equals("@Atomic");
+            Compilation compilation = javac().withProcessors(new WrappedProcessor()).compile(JavaFileObjects.forSourceLines(
+                    "sample.Canon",
+                    "package sample;",
+                    "",
+                    "import io.github.netanelshriki.minilombok.annotations.*;",
+                    "",
+                    onField ? "" : mutator,
+                    "@AllArgsConstructor",
+                    "@Interned",
+                    "public class Canon {",
+                    "    private String currency;",
+                    "    " + (onField ? mutator + " " : "") + "private int amount;",
+                    "}"));
+            
+            assertThat(compilation).hadErrorContaining("cannot have the mutators generated for " + mutator);
+        }
+    }
+    
+    @Test
+    public void testBinaryCodecFieldNames() {
+        // Fields named like the locals of readFrom must not clash with them
+        WrappedProcessor processor = new WrappedProcessor();
+        Compilation compilation = javac().withProcessors(processor).compile(JavaFileObjects.forSourceLines(
+                "sample.Frame",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "",
+                "@Value",
+                "@BinaryCodec",
+                "public class Frame {",
+                "    private int index;",
+                "    private String buffer;",
+                "    private long bufferLength;",
+                "}"));
+        
+        assertThat(compilation).succeeded();
+        assertThat(javac().compile(JavaFileObjects.forSourceString("sample.Frame", processor.sources.get("sample.Frame"))))
+                .succeeded();
+    }
+    
+    @Test
+    public void testJsonCodecFieldNames() {
+        // A field named like the reader parameter of readJson must not clash with it
+        WrappedProcessor processor = new WrappedProcessor();
+        Compilation compilation = javac().withProcessors(processor).compile(JavaFileObjects.forSourceLines(
+                "sample.Source",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "",
+                "@Value",
+                "@JsonCodec",
+                "public class Source {",
+                "    private String reader;",
+                "    private int out;",
+                "}"));
+        
+        assertThat(compilation).succeeded();
+        assertThat(javac().compile(JavaFileObjects.forSourceString("sample.Source", processor.sources.get("sample.Source"))))
+                .succeeded();
+    }
+    
+    @Test
+    public void testParallelRenderingMatchesSequential() {
+        WrappedProcessor sequential = new WrappedProcessor();
+        assertThat(javac().withProcessors(sequential).compile(optionSources())).succeeded();
+        WrappedProcessor parallel = new WrappedProcessor();
+        assertThat(javac().withProcessors(parallel).withOptions("-Aminilombok.parallel=4").compile(optionSources()))
+                .succeeded();
+        
+        // The same files with the same contents, written in the same order
+        assertEquals(4, sequential.sources.size());
+        assertEquals(new ArrayList<>(sequential.sources.entrySet()), new ArrayList<>(parallel.sources.entrySet()));
+    }
+    
+    @Test
+    public void testStatsReport() throws IOException {
+        Path report = Files.createTempFile("minilombok-stats", ".json");
+        try {
+            Compilation compilation = javac().withProcessors(new WrappedProcessor())
+                    .withOptions("-Aminilombok.stats=" + report)
+                    .compile(optionSources());
+            assertThat(compilation).succeeded();
+            assertThat(compilation).hadNoteContaining("MiniLombok: 3 classes");
+            
+            String json = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+            assertTrue(json.contains("\"classesProcessed\": 3"));
+            assertTrue(json.contains("\"rounds\": ["));
+            // The report is a single well-formed JSON document
+            JsonReader reader = new JsonReader(json);
+            reader.skipValue();
+            reader.endDocument();
+        } finally {
+            Files.deleteIfExists(report);
+        }
+    }
+    
+    @Test
+    public void testDiscoversClassesInsideAnyType() throws IOException {
+        // Annotated classes are found inside interfaces and enums, and unannotated types are skipped
+        Path report = Files.createTempFile("minilombok-stats", ".json");
+        try {
+            WrappedProcessor processor = new WrappedProcessor();
+            Compilation compilation = javac().withProcessors(processor)
+                    .withOptions("-proc:only", "-Aminilombok.stats=" + report)
+                    .compile(
+                            JavaFileObjects.forSourceLines("sample.Shapes",
+                                    "package sample;",
+                                    "",
+                                    "import io.github.netanelshriki.minilombok.annotations.*;",
+                                    "",
+                                    "public interface Shapes {",
+                                    "    @Getter",
+                                    "    class Circle {",
+                                    "        private double radius;",
+                                    "    }",
+                                    "}"),
+                            JavaFileObjects.forSourceLines("sample.Unit",
+                                    "package sample;",
+                                    "",
+                                    "import io.github.netanelshriki.minilombok.annotations.*;",
+                                    "",
+                                    "public enum Unit {",
+                                    "    METER;",
+                                    "",
+                                    "    static class Scale {",
+                                    "        @Getter",
+                                    "        private double factor;",
+                                    "    }",
+                                    "}"),
+                            JavaFileObjects.forSourceLines("sample.Plain",
+                                    "package sample;",
+                                    "",
+                                    "public class Plain {",
+                                    "    private int count;",
+                                    "}"));
+            
+            assertThat(compilation).succeeded();
+            assertThat(compilation).hadNoteContaining("MiniLombok: 2 classes");
+            String json = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+            assertTrue(json.contains("\"sample.Shapes.Circle\""));
+            assertTrue(json.contains("\"sample.Unit.Scale\""));
+            assertFalse(json.contains("sample.Plain"));
+        } finally {
+            Files.deleteIfExists(report);
+        }
+    }
+    
+    @Test
+    public void testColumnarFieldNames() {
+        // Fields named like the row count and the index parameter must not clash with them
+        Compilation compilation = javac().withProcessors(new MiniLombokProcessor()).compile(JavaFileObjects.forSourceLines(
+                "sample.Fill",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "",
+                "@Columnar",
+                "public class Fill {",
+                "    private long index;",
+                "    private int size;",
+                "}"));
+        
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("sample.FillColumns").contentsAsUtf8String()
+                .contains("this.sizeValues[this.size] = size;");
+    }
+    
+    @Test
+    public void testSeparateCompilationMatchesFullBuild() throws IOException {
+        JavaFileObject inner = JavaFileObjects.forSourceLines("sample.Inner",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "",
+                "@ToString",
+                "@JsonCodec",
+                "@Footprint",
+                "public class Inner {",
+                "    private int id;",
+                "}");
+        JavaFileObject outer = JavaFileObjects.forSourceLines("sample.Outer",
+                "package sample;",
+                "",
+                "import io.github.netanelshriki.minilombok.annotations.*;",
+                "",
+                "@ToString",
+                "@JsonCodec",
+                "@Footprint",
+                "public class Outer {",
+                "    private String name;",
+                "    private Inner inner;",
+                "}");
+        WrappedProcessor full = new WrappedProcessor();
+        assertThat(javac().withProcessors(full).compile(inner, outer)).succeeded();
+        
+        // An incremental build recompiles Outer alone, against the class file of Inner
+        Path classes = Files.createTempDirectory("minilombok-classes");
+        try {
+            Compilation innerOnly = javac().compile(inner);
+            assertThat(innerOnly).succeeded();
+            Files.createDirectories(classes.resolve("sample"));
+            try (InputStream in = innerOnly.generatedFile(StandardLocation.CLASS_OUTPUT, "sample", "Inner.class")
+                    .get().openInputStream()) {
+                Files.copy(in, classes.resolve("sample/Inner.class"));
+            }
+            List<File> classpath = new ArrayList<>();
+            for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+                classpath.add(new File(entry));
+            }
+            classpath.add(classes.toFile());
+            
+            WrappedProcessor incremental = new WrappedProcessor();
+            assertThat(javac().withProcessors(incremental).withClasspath(classpath).compile(outer)).succeeded();
+            assertEquals(full.sources.get("sample.Outer"), incremental.sources.get("sample.Outer"));
+        } finally {
+            Files.deleteIfExists(classes.resolve("sample/Inner.class"));
+            Files.deleteIfExists(classes.resolve("sample"));
+            Files.deleteIfExists(classes);
+        }
+    }
+    
+    /**
+     * Returns sources of several annotated classes, one of them with a companion class, for
+     * checking processor options.
+     */
+    private static JavaFileObject[] optionSources() {
+        return new JavaFileObject[] {
+                JavaFileObjects.forSourceLines("sample.Point",
+                        "package sample;",
+                        "",
+                        "import io.github.netanelshriki.minilombok.annotations.*;",
+                        "",
+                        "@AllArgsConstructor",
+                        "@Getter",
+                        "@ToString",
+                        "public class Point {",
+                        "    private int x;",
+                        "    private int y;",
+                        "}"),
+                JavaFileObjects.forSourceLines("sample.Account",
+                        "package sample;",
+                        "",
+                        "import io.github.netanelshriki.minilombok.annotations.*;",
+                        "",
+                        "@Value",
+                        "@EqualsAndHashCode",
+                        "@Builder",
+                        "public class Account {",
+                        "    private String owner;",
+                        "    private long balance;",
+                        "}"),
+                JavaFileObjects.forSourceLines("sample.Tick",
+                        "package sample;",
+                        "",
+                        "import io.github.netanelshriki.minilombok.annotations.*;",
+                        "",
+                        "@FlyweightView",
+                        "@ToString",
+                        "public class Tick {",
+                        "    private long time;",
+                        "    private double price;",
+                        "}")
+        };
+    }
 }
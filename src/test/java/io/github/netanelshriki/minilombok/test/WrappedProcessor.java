@@ -0,0 +1,181 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.processor.MiniLombokProcessor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs {@link MiniLombokProcessor} behind a {@link ProcessingEnvironment} that delegates to
+ * javac's, the way Gradle's incremental compilation does. Generated sources are kept in memory
+ * instead of being compiled, so annotated classes can be regenerated next to their own sources.
+ */
+final class WrappedProcessor implements Processor {
+
+    private final Processor delegate = new MiniLombokProcessor();
+    private final boolean javacTrees;
+    // Generated sources by qualified name, in the order they were written
+    final Map<String, String> sources = new LinkedHashMap<>();
+
+    WrappedProcessor() {
+        this(false);
+    }
+
+    /**
+     * With {@code javacTrees}, the processor still writes through the in-memory filer but reads
+     * field initializers through javac's tree API, as it does when javac runs it directly.
+     */
+    WrappedProcessor(boolean javacTrees) {
+        this.javacTrees = javacTrees;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+        delegate.init(new WrappedEnvironment(processingEnv, new InMemoryFiler(processingEnv.getFiler())));
+        if (javacTrees) {
+            // The processor only looks the tree API up from its own environment, which is wrapped
+            try {
+                Field trees = MiniLombokProcessor.class.getDeclaredField("trees");
+                Method create = trees.getType().getDeclaredMethod("create", ProcessingEnvironment.class);
+                trees.setAccessible(true);
+                create.setAccessible(true);
+                trees.set(delegate, create.invoke(null, processingEnv));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        return delegate.process(annotations, roundEnv);
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation,
+                                                         ExecutableElement member, String userText) {
+        return delegate.getCompletions(element, annotation, member, userText);
+    }
+
+    private static final class WrappedEnvironment implements ProcessingEnvironment {
+        private final ProcessingEnvironment delegate;
+        private final Filer filer;
+
+        WrappedEnvironment(ProcessingEnvironment delegate, Filer filer) {
+            this.delegate = delegate;
+            this.filer = filer;
+        }
+
+        @Override
+        public Map<String, String> getOptions() {
+            return delegate.getOptions();
+        }
+
+        @Override
+        public Messager getMessager() {
+            return delegate.getMessager();
+        }
+
+        @Override
+        public Filer getFiler() {
+            return filer;
+        }
+
+        @Override
+        public Elements getElementUtils() {
+            return delegate.getElementUtils();
+        }
+
+        @Override
+        public Types getTypeUtils() {
+            return delegate.getTypeUtils();
+        }
+
+        @Override
+        public SourceVersion getSourceVersion() {
+            return delegate.getSourceVersion();
+        }
+
+        @Override
+        public Locale getLocale() {
+            return delegate.getLocale();
+        }
+    }
+
+    private final class InMemoryFiler implements Filer {
+        private final Filer delegate;
+
+        InMemoryFiler(Filer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) {
+            String qualifiedName = name.toString();
+            URI uri = URI.create("mem:///" + qualifiedName.replace('.', '/') + ".java");
+            return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+                @Override
+                public Writer openWriter() {
+                    return new StringWriter() {
+                        @Override
+                        public void close() {
+                            sources.put(qualifiedName, toString());
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+            return delegate.createClassFile(name, originatingElements);
+        }
+
+        @Override
+        public FileObject createResource(JavaFileManager.Location location, CharSequence moduleAndPkg,
+                                         CharSequence relativeName, Element... originatingElements) throws IOException {
+            return delegate.createResource(location, moduleAndPkg, relativeName, originatingElements);
+        }
+
+        @Override
+        public FileObject getResource(JavaFileManager.Location location, CharSequence moduleAndPkg,
+                                      CharSequence relativeName) throws IOException {
+            return delegate.getResource(location, moduleAndPkg, relativeName);
+        }
+    }
+}
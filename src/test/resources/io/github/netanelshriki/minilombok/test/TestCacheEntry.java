@@ -0,0 +1,15 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.*;
+
+/**
+ * Test model for @Footprint: a cache entry whose weight includes its key, payload and chained entry.
+ */
+@Footprint
+@AllArgsConstructor
+public class TestCacheEntry {
+    private String key;
+    private long version;
+    private byte[] payload;
+    private TestCacheEntry next;
+}
@@ -0,0 +1,17 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.Atomic;
+import io.github.netanelshriki.minilombok.annotations.Getter;
+
+/**
+ * Test model with fields updated concurrently through atomic accessors.
+ */
+@Getter
+public class TestCounter {
+    @Atomic
+    private int hits;
+    @Atomic
+    private long bytes;
+    @Atomic
+    private String state;
+}
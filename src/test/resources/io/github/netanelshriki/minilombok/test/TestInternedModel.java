@@ -0,0 +1,14 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.*;
+
+/**
+ * Test model for @Interned: equal currency amounts created through the factory share one instance.
+ */
+@Value(staticConstructor = "of")
+@EqualsAndHashCode(cacheHashCode = true)
+@Interned(capacity = 64, strings = true)
+public class TestInternedModel {
+    private String currency;
+    private long amount;
+}
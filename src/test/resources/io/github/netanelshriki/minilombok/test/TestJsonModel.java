@@ -0,0 +1,22 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
+import io.github.netanelshriki.minilombok.annotations.Getter;
+import io.github.netanelshriki.minilombok.annotations.JsonCodec;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test model read and written as JSON by generated code.
+ */
+@AllArgsConstructor
+@Getter
+@JsonCodec
+public class TestJsonModel {
+    private String name;
+    private int count;
+    private long total;
+    private boolean enabled;
+    private double ratio;
+    private TimeUnit unit;
+}
@@ -0,0 +1,23 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
+import io.github.netanelshriki.minilombok.annotations.Getter;
+import io.github.netanelshriki.minilombok.annotations.ToString;
+
+import java.util.Locale;
+
+/**
+ * Test model with values derived from its fields on first access.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class TestLazyModel {
+    private String text;
+    @Getter(lazy = true)
+    private final String normalized = text.trim().toLowerCase(Locale.ROOT);
+    @Getter(lazy = true)
+    private final String missing = null;
+    @Getter(lazy = true)
+    private final int length = text.length();
+}
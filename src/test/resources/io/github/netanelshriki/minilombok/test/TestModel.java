@@ -1,7 +1,12 @@
 package io.github.netanelshriki.minilombok.test;
 
 import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
+import io.github.netanelshriki.minilombok.annotations.BinaryCodec;
+import io.github.netanelshriki.minilombok.annotations.Builder;
+import io.github.netanelshriki.minilombok.annotations.Columnar;
+import io.github.netanelshriki.minilombok.annotations.EqualsAndHashCode;
 import io.github.netanelshriki.minilombok.annotations.Getter;
+import io.github.netanelshriki.minilombok.annotations.Introspect;
 import io.github.netanelshriki.minilombok.annotations.Setter;
 import io.github.netanelshriki.minilombok.annotations.ToString;
 
@@ -12,6 +17,11 @@ import io.github.netanelshriki.minilombok.annotations.ToString;
 @Getter
 @Setter
 @ToString
+@EqualsAndHashCode
+@Builder(threadLocal = true)
+@Introspect
+@BinaryCodec
+@Columnar
 public class TestModel {
     private String name;
     private int age;
@@ -0,0 +1,28 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
+import io.github.netanelshriki.minilombok.annotations.EqualsAndHashCode;
+import io.github.netanelshriki.minilombok.annotations.Getter;
+import io.github.netanelshriki.minilombok.annotations.Packed;
+import io.github.netanelshriki.minilombok.annotations.Setter;
+import io.github.netanelshriki.minilombok.annotations.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test model whose flags, enum and small integer share one packed word.
+ */
+@Packed
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class TestPackedModel {
+    private String name;
+    private boolean enabled;
+    private boolean visible;
+    private TimeUnit unit;
+    @Packed(bits = 10)
+    private int retries;
+}
@@ -0,0 +1,16 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
+import io.github.netanelshriki.minilombok.annotations.Getter;
+import io.github.netanelshriki.minilombok.annotations.Pooled;
+
+/**
+ * Short-lived test message recycled through a per-thread pool.
+ */
+@AllArgsConstructor
+@Getter
+@Pooled(capacity = 2, stats = true)
+public class TestPooledMessage {
+    private String topic;
+    private long timestamp;
+}
@@ -0,0 +1,16 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
+import io.github.netanelshriki.minilombok.annotations.Getter;
+import io.github.netanelshriki.minilombok.annotations.Ordered;
+
+/**
+ * Test model ranked by score, highest first, then by name with missing names last.
+ */
+@AllArgsConstructor
+@Getter
+@Ordered({@Ordered.Key(value = "score", descending = true), @Ordered.Key("name")})
+public class TestRankedModel {
+    private String name;
+    private long score;
+}
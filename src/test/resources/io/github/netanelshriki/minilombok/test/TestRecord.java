@@ -0,0 +1,17 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
+import io.github.netanelshriki.minilombok.annotations.BinaryCodec;
+import io.github.netanelshriki.minilombok.annotations.FlyweightView;
+
+/**
+ * Fixed-layout test record with primitive fields only.
+ */
+@AllArgsConstructor
+@BinaryCodec
+@FlyweightView
+public class TestRecord {
+    private long id;
+    private int quantity;
+    private boolean active;
+}
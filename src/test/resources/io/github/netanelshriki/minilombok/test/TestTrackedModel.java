@@ -0,0 +1,21 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.AllArgsConstructor;
+import io.github.netanelshriki.minilombok.annotations.BinaryCodec;
+import io.github.netanelshriki.minilombok.annotations.Getter;
+import io.github.netanelshriki.minilombok.annotations.Setter;
+import io.github.netanelshriki.minilombok.annotations.TrackChanges;
+
+/**
+ * Test model that records which fields its setters changed.
+ */
+@AllArgsConstructor
+@Getter
+@Setter
+@BinaryCodec
+@TrackChanges
+public class TestTrackedModel {
+    private String name;
+    private int age;
+    private double balance;
+}
@@ -0,0 +1,17 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.*;
+
+import java.util.List;
+
+/**
+ * Test model for a bounded @ToString: a tree node that can point back at its ancestors.
+ */
+@Getter
+@Setter
+@ToString(maxLength = 160, maxElements = 3, maxDepth = 1)
+public class TestTreeNode {
+    private String name;
+    private TestTreeNode parent;
+    private List<Object> children;
+}
@@ -0,0 +1,16 @@
+package io.github.netanelshriki.minilombok.test;
+
+import io.github.netanelshriki.minilombok.annotations.EqualsAndHashCode;
+import io.github.netanelshriki.minilombok.annotations.ToString;
+import io.github.netanelshriki.minilombok.annotations.Value;
+
+/**
+ * Immutable test model.
+ */
+@Value(staticConstructor = "of")
+@ToString
+@EqualsAndHashCode(cacheHashCode = true)
+public class TestValueModel {
+    private String code;
+    private long amount;
+}